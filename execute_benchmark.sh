@@ -0,0 +1,2 @@
+#!/usr/bin/env bash
+java -Xmx6g -cp target/reproducer.jar org.optaweb.employeerostering.benchmark.EmployeeRosteringBenchmarkApp "$@"
@@ -0,0 +1,2 @@
+#!/usr/bin/env bash
+java -Xmx6g -Ddrools.jittingThreshold=0 -jar target/reproducer.jar --bounded-memory
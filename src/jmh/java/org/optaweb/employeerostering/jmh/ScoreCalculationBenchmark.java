@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.jmh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+import org.optaplanner.core.impl.score.director.InnerScoreDirectorFactory;
+import org.optaplanner.core.impl.score.director.drools.DroolsScoreDirectorFactory;
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.generator.RosterGenerator;
+
+/**
+ * Measures the DRL score calculation of a fixed sequence of {@link Shift#setEmployee(Employee)} changes,
+ * for all rules together or for 1 rule alone, with Drools JIT on and off.
+ * Add {@code -prof gc} to the JMH arguments to see the bytes allocated per change ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScoreCalculationBenchmark {
+
+    private static final String SOLVER_CONFIG
+            = "org/optaweb/employeerostering/service/solver/employeeRosteringSolverConfig.xml";
+    private static final String RULE_PACKAGE = "org.optaweb.employeerostering.service.solver";
+    private static final String ALL_RULES = "ALL";
+    private static final int LENGTH_IN_DAYS = 28;
+    private static final int WORK_DAYS_PER_WEEK = 5;
+    private static final int CHANGE_COUNT = 1024;
+
+    @Param({"10", "30", "100"})
+    public int spotListSize;
+
+    /**
+     * -1 never JITs the constraints, 0 JITs them all when the session is created.
+     */
+    @Param({"-1", "0"})
+    public String jittingThreshold;
+
+    @Param({ALL_RULES,
+            "Required skill for a shift",
+            "Unavailable time slot for an employee",
+            "No 2 shifts within 10 hours from each other",
+            "Daily minutes must not exceed contract maximum",
+            "Weekly minutes must not exceed contract maximum",
+            "Monthly minutes must not exceed contract maximum",
+            "Yearly minutes must not exceed contract maximum",
+            "Desired time slot for an employee",
+            "Undesired time slot for an employee"})
+    public String ruleName;
+
+    private InnerScoreDirector<Roster> scoreDirector;
+    private Shift[] changedShifts;
+    private Employee[] changedEmployees;
+
+    @Setup
+    public void setUp() {
+        Roster roster = new RosterGenerator().generateRoster(spotListSize, LENGTH_IN_DAYS, WORK_DAYS_PER_WEEK);
+        // Start from a fully assigned roster, as the local search does
+        Random random = new Random(0L);
+        List<Employee> employeeList = roster.getEmployeeList();
+        for (Shift shift : roster.getShiftList()) {
+            shift.setEmployee(employeeList.get(random.nextInt(employeeList.size())));
+        }
+        changedShifts = new Shift[CHANGE_COUNT];
+        changedEmployees = new Employee[CHANGE_COUNT];
+        for (int i = 0; i < CHANGE_COUNT; i++) {
+            changedShifts[i] = roster.getShiftList().get(random.nextInt(roster.getShiftList().size()));
+            changedEmployees[i] = employeeList.get(random.nextInt(employeeList.size()));
+        }
+
+        SolverFactory<Roster> solverFactory = SolverFactory.createFromXmlResource(SOLVER_CONFIG);
+        solverFactory.getSolverConfig().getScoreDirectorFactoryConfig().setKieBaseConfigurationProperties(
+                Collections.singletonMap("drools.jittingThreshold", jittingThreshold));
+        InnerScoreDirectorFactory<Roster> scoreDirectorFactory
+                = (InnerScoreDirectorFactory<Roster>) solverFactory.buildSolver().getScoreDirectorFactory();
+        if (!ruleName.equals(ALL_RULES)) {
+            retainRule(((DroolsScoreDirectorFactory<Roster>) scoreDirectorFactory).getKieBase(), ruleName);
+        }
+        scoreDirector = scoreDirectorFactory.buildScoreDirector();
+        scoreDirector.setWorkingSolution(roster);
+        scoreDirector.calculateScore();
+    }
+
+    private static void retainRule(KieBase kieBase, String retainedRuleName) {
+        KiePackage kiePackage = kieBase.getKiePackage(RULE_PACKAGE);
+        List<String> removedRuleNameList = new ArrayList<>();
+        boolean found = false;
+        for (Rule rule : kiePackage.getRules()) {
+            if (rule.getName().equals(retainedRuleName)) {
+                found = true;
+            } else {
+                removedRuleNameList.add(rule.getName());
+            }
+        }
+        if (!found) {
+            throw new IllegalArgumentException("The ruleName (" + retainedRuleName
+                                                       + ") does not exist in the package (" + RULE_PACKAGE + ").");
+        }
+        for (String removedRuleName : removedRuleNameList) {
+            kieBase.removeRule(RULE_PACKAGE, removedRuleName);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        scoreDirector.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHANGE_COUNT)
+    public Score changeEmployee() {
+        Score score = null;
+        for (int i = 0; i < CHANGE_COUNT; i++) {
+            Shift shift = changedShifts[i];
+            scoreDirector.beforeVariableChanged(shift, "employee");
+            shift.setEmployee(changedEmployees[i]);
+            scoreDirector.afterVariableChanged(shift, "employee");
+            score = scoreDirector.calculateScore();
+        }
+        return score;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.jmh;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaplanner.core.api.domain.solution.cloner.SolutionCloner;
+import org.optaplanner.core.impl.domain.solution.cloner.FieldAccessingSolutionCloner;
+import org.optaplanner.core.impl.domain.solution.descriptor.SolutionDescriptor;
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.roster.RosterSolutionCloner;
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.generator.RosterGenerator;
+
+/**
+ * Compares the clone of a best solution event by {@link RosterSolutionCloner}
+ * with the reflection-based default cloner of OptaPlanner.
+ * Add {@code -prof gc} to the JMH arguments to see the bytes allocated per clone ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolutionCloneBenchmark {
+
+    private static final int LENGTH_IN_DAYS = 28;
+    private static final int WORK_DAYS_PER_WEEK = 5;
+
+    @Param({"10", "30", "100"})
+    public int spotListSize;
+
+    @Param({"DEFAULT", "ROSTER"})
+    public String cloner;
+
+    private Roster roster;
+    private SolutionCloner<Roster> solutionCloner;
+
+    @Setup
+    public void setUp() {
+        roster = new RosterGenerator().generateRoster(spotListSize, LENGTH_IN_DAYS, WORK_DAYS_PER_WEEK);
+        // A best solution has its employees assigned
+        Random random = new Random(0L);
+        List<Employee> employeeList = roster.getEmployeeList();
+        for (Shift shift : roster.getShiftList()) {
+            shift.setEmployee(employeeList.get(random.nextInt(employeeList.size())));
+        }
+        switch (cloner) {
+            case "DEFAULT":
+                SolutionDescriptor<Roster> solutionDescriptor
+                        = SolutionDescriptor.buildSolutionDescriptor(Roster.class, Shift.class);
+                solutionCloner = new FieldAccessingSolutionCloner<>(solutionDescriptor);
+                break;
+            case "ROSTER":
+                solutionCloner = new RosterSolutionCloner();
+                break;
+            default:
+                throw new IllegalArgumentException("The cloner (" + cloner + ") is not supported.");
+        }
+    }
+
+    @Benchmark
+    public Roster cloneSolution() {
+        return solutionCloner.cloneSolution(roster);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.jmh;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.optaweb.employeerostering.domain.common.DateTimeUtils;
+import org.optaweb.employeerostering.domain.common.WeekBuckets;
+
+/**
+ * Compares {@link DateTimeUtils#sameWeek(DayOfWeek, OffsetDateTime, OffsetDateTime)}
+ * with comparing the week buckets of {@link WeekBuckets}.
+ * Add {@code -prof gc} to the JMH arguments to see the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeekBucketBenchmark {
+
+    private static final int DATE_TIME_COUNT = 1024;
+
+    @Param({"MONDAY", "SUNDAY"})
+    public DayOfWeek weekStartDay;
+
+    @Param({"UTC", "Europe/Brussels"})
+    public String zoneId;
+
+    private WeekBuckets buckets;
+    private OffsetDateTime[] dateTimes;
+    private int[] weekBuckets;
+
+    @Setup
+    public void setUp() {
+        ZoneId zone = ZoneId.of(zoneId);
+        buckets = WeekBuckets.of(weekStartDay, zone);
+        Random random = new Random(0L);
+        LocalDate firstDate = LocalDate.of(2019, 1, 1);
+        dateTimes = new OffsetDateTime[DATE_TIME_COUNT];
+        weekBuckets = new int[DATE_TIME_COUNT];
+        for (int i = 0; i < DATE_TIME_COUNT; i++) {
+            // Shift starts spread over the 112 days of the reproducer roster
+            dateTimes[i] = firstDate.plusDays(random.nextInt(28 * 4))
+                    .atTime(LocalTime.of(random.nextInt(24), 0))
+                    .atZone(zone).toOffsetDateTime();
+            weekBuckets[i] = buckets.getWeekBucket(dateTimes[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATE_TIME_COUNT - 1)
+    public int sameWeek() {
+        int sameWeekCount = 0;
+        for (int i = 1; i < DATE_TIME_COUNT; i++) {
+            if (DateTimeUtils.sameWeek(weekStartDay, dateTimes[i - 1], dateTimes[i])) {
+                sameWeekCount++;
+            }
+        }
+        return sameWeekCount;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATE_TIME_COUNT - 1)
+    public int weekBucketEquals() {
+        int sameWeekCount = 0;
+        for (int i = 1; i < DATE_TIME_COUNT; i++) {
+            if (weekBuckets[i - 1] == weekBuckets[i]) {
+                sameWeekCount++;
+            }
+        }
+        return sameWeekCount;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATE_TIME_COUNT)
+    public int assignWeekBucket() {
+        int checksum = 0;
+        for (int i = 0; i < DATE_TIME_COUNT; i++) {
+            checksum += buckets.getWeekBucket(dateTimes[i]);
+        }
+        return checksum;
+    }
+}
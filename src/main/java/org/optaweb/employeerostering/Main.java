@@ -1,19 +1,173 @@
 package org.optaweb.employeerostering;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.generator.GeneratorTypePreset;
 import org.optaweb.employeerostering.generator.RosterGenerator;
+import org.optaweb.employeerostering.generator.RosterGeneratorConfig;
+import org.optaweb.employeerostering.service.solver.BoundedMemorySolverRunner;
+import org.optaweb.employeerostering.service.solver.RosterCheckpoint;
+import org.optaweb.employeerostering.service.solver.RosterCheckpointWriter;
+import org.optaweb.employeerostering.service.solver.RosterHistoryCompactor;
+import org.optaweb.employeerostering.service.solver.RosterSolutionPartitioner;
+import org.optaweb.employeerostering.service.solver.RotationConstructionPhaseCommand;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.partitionedsearch.PartitionedSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.phase.custom.CustomPhaseConfig;
 
 public class Main {
-    public static void main(String[] args) {
+
+    private static final long CHECKPOINT_WRITE_INTERVAL_MILLIS = 10_000L;
+
+    public static void main(String[] args) throws IOException {
+	RosterGeneratorConfig.Builder configBuilder = RosterGeneratorConfig.builder();
+	boolean boundedMemory = false;
+	String moveThreadCount = null;
+	String partitionStrategy = null;
+	boolean compactHistory = false;
+	boolean rotationConstruction = false;
+	Path checkpointPath = null;
+	boolean resume = false;
+	for (String arg : args) {
+	    String[] keyValue = arg.split("=", 2);
+	    String value = keyValue.length == 2 ? keyValue[1] : null;
+	    switch (keyValue[0]) {
+		case "--bounded-memory":
+		    boundedMemory = true;
+		    break;
+		case "--type":
+		    configBuilder.withGeneratorTypePreset(GeneratorTypePreset.valueOf(value));
+		    break;
+		case "--seed":
+		    configBuilder.withSeed(Long.parseLong(value));
+		    break;
+		case "--zone":
+		    configBuilder.withZoneId(ZoneId.of(value));
+		    break;
+		case "--spots":
+		    configBuilder.withSpotListSize(Integer.parseInt(value));
+		    break;
+		case "--draft-days":
+		    configBuilder.withDraftLengthInDays(Integer.parseInt(value));
+		    break;
+		case "--work-days":
+		    configBuilder.withWorkDaysPerWeek(Integer.parseInt(value));
+		    break;
+		case "--employee-multiplier":
+		    configBuilder.withEmployeeMultiplier(Double.parseDouble(value));
+		    break;
+		case "--parallelism":
+		    configBuilder.withParallelism(Integer.parseInt(value));
+		    break;
+		case "--move-threads":
+		    moveThreadCount = value;
+		    break;
+		case "--partitioned":
+		    partitionStrategy = RosterSolutionPartitioner.Strategy.valueOf(value).name();
+		    break;
+		case "--compact-history":
+		    compactHistory = true;
+		    break;
+		case "--rotation-construction":
+		    rotationConstruction = true;
+		    break;
+		case "--checkpoint":
+		    checkpointPath = Paths.get(value);
+		    break;
+		case "--resume":
+		    resume = true;
+		    break;
+		default:
+		    throw new IllegalArgumentException("Unknown argument (" + arg + "), expected --bounded-memory,"
+			    + " --type=<HOSPITAL|FACTORY_ASSEMBLY|GUARD_SECURITY|CALL_CENTER|POST_OFFICE>, --seed=<long>,"
+			    + " --zone=<zone id>, --spots=<int>, --draft-days=<int>, --work-days=<int>"
+			    + ", --employee-multiplier=<double>, --parallelism=<int>, --move-threads=<NONE|AUTO|int>"
+			    + ", --partitioned=<WEEK|SKILL_COMPONENT>, --compact-history, --rotation-construction"
+			    + ", --checkpoint=<file> or --resume.");
+	    }
+	}
+	if (resume && checkpointPath == null) {
+	    throw new IllegalArgumentException("The argument --resume requires --checkpoint=<file>.");
+	}
+	RosterGeneratorConfig config = configBuilder.build();
 	RosterGenerator rosterGenerator = new RosterGenerator();
-	Roster roster = rosterGenerator.generateRoster(100, 28 * 4, 100);
+	Roster roster = rosterGenerator.generateRoster(config);
+	System.out.printf("Generated a %s: %d employees and %d shifts.\n", config,
+			  roster.getEmployeeList().size(), roster.getShiftList().size());
+	if (compactHistory) {
+	    int removedShiftCount = new RosterHistoryCompactor().compact(roster);
+	    System.out.printf("Compacted %d historic shifts into %d carried over period minutes.\n", removedShiftCount,
+			      roster.getEmployeePeriodMinutesList().size());
+	}
+	// The parallel generation differs from the sequential one, and the dates of the shifts and availabilities
+	// start from the current date, so they are both part of the problem
+	String problemName = config + " generated with parallelism " + config.getParallelism()
+		+ ", last historic date " + roster.getRosterState().getLastHistoricDate()
+		+ " and first draft date " + roster.getRosterState().getFirstDraftDate();
+	if (resume && Files.exists(checkpointPath)) {
+	    RosterCheckpoint checkpoint = RosterCheckpoint.read(checkpointPath);
+	    if (!problemName.equals(checkpoint.getProblemName())) {
+		throw new IllegalArgumentException("The checkpoint (" + checkpointPath + ") is of another problem ("
+			+ checkpoint.getProblemName() + ").");
+	    }
+	    int assignedCount = checkpoint.restore(roster);
+	    System.out.printf("Resumed %d shift assignments from the checkpoint with score %s.\n", assignedCount,
+			      checkpoint.getScore());
+	}
 
-        SolverFactory<Roster> factory = SolverFactory
-          .createFromXmlResource("org/optaweb/employeerostering/service/solver/employeeRosteringSolverConfig.xml");
-        Solver<Roster> solver = factory.buildSolver();
-	Roster solution = solver.solve(roster);
+        SolverFactory<Roster> factory = SolverFactory.createFromXmlResource(partitionStrategy == null
+		? "org/optaweb/employeerostering/service/solver/employeeRosteringSolverConfig.xml"
+		: "org/optaweb/employeerostering/service/solver/employeeRosteringPartitionedSolverConfig.xml");
+	if (partitionStrategy != null) {
+	    for (PhaseConfig phaseConfig : factory.getSolverConfig().getPhaseConfigList()) {
+		if (phaseConfig instanceof PartitionedSearchPhaseConfig) {
+		    ((PartitionedSearchPhaseConfig) phaseConfig).getSolutionPartitionerCustomProperties()
+			    .put("strategy", partitionStrategy);
+		}
+	    }
+	}
+	if (rotationConstruction) {
+	    // Off by default, so the default run keeps reproducing the leak
+	    CustomPhaseConfig customPhaseConfig = new CustomPhaseConfig();
+	    customPhaseConfig.setCustomPhaseCommandClassList(
+		    Collections.singletonList(RotationConstructionPhaseCommand.class));
+	    List<PhaseConfig> phaseConfigList = new ArrayList<>(factory.getSolverConfig().getPhaseConfigList());
+	    phaseConfigList.add(0, customPhaseConfig);
+	    factory.getSolverConfig().setPhaseConfigList(phaseConfigList);
+	}
+	if (moveThreadCount != null) {
+	    factory.getSolverConfig().setMoveThreadCount(moveThreadCount);
+	}
+	RosterCheckpointWriter checkpointWriter = checkpointPath == null ? null
+		: new RosterCheckpointWriter(checkpointPath, problemName, CHECKPOINT_WRITE_INTERVAL_MILLIS);
+	Roster solution;
+	if (boundedMemory) {
+	    // Restarts without Drools JIT from the best solution so far when the heap fills up
+	    BoundedMemorySolverRunner solverRunner = new BoundedMemorySolverRunner(factory);
+	    if (checkpointWriter != null) {
+		solverRunner.addEventListener(checkpointWriter);
+	    }
+	    solution = solverRunner.solve(roster);
+	} else {
+	    Solver<Roster> solver = factory.buildSolver();
+	    if (checkpointWriter != null) {
+		solver.addEventListener(checkpointWriter);
+	    }
+	    solution = solver.solve(roster);
+	}
+	if (checkpointWriter != null) {
+	    checkpointWriter.close();
+	}
 
 	System.out.printf("The best score is: %s.\n", solution.getScore().toString());
     }
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.optaplanner.benchmark.api.PlannerBenchmark;
+import org.optaplanner.benchmark.api.PlannerBenchmarkFactory;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.generator.GeneratorTypePreset;
+import org.optaweb.employeerostering.generator.RosterGenerator;
+import org.optaweb.employeerostering.generator.RosterGeneratorConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Benchmarks the solver configurations of {@link #BENCHMARK_CONFIG} on a small, medium and large roster
+ * of every {@link GeneratorTypePreset}, and writes the HTML report in {@code local/benchmarkReport}.
+ * The rosters are generated in memory from a fixed seed, so every run gets the same problems.
+ * With the {@code --multithreaded} argument, it benchmarks {@link #MULTITHREADED_BENCHMARK_CONFIG} instead,
+ * the same solver with 1 to 8 move threads.
+ */
+public class EmployeeRosteringBenchmarkApp {
+
+    public static final String BENCHMARK_CONFIG
+            = "org/optaweb/employeerostering/benchmark/employeeRosteringBenchmarkConfig.xml";
+    public static final String MULTITHREADED_BENCHMARK_CONFIG
+            = "org/optaweb/employeerostering/benchmark/employeeRosteringMultiThreadedBenchmarkConfig.xml";
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeRosteringBenchmarkApp.class);
+
+    private static final int WORK_DAYS_PER_WEEK = 5;
+    // Spot list size and draft length in days of the small, medium and large rosters
+    private static final int[][] SCALES = {{10, 14}, {30, 28}, {100, 28}};
+
+    public static void main(String[] args) {
+        String benchmarkConfig = BENCHMARK_CONFIG;
+        for (String arg : args) {
+            if (arg.equals("--multithreaded")) {
+                benchmarkConfig = MULTITHREADED_BENCHMARK_CONFIG;
+            } else {
+                throw new IllegalArgumentException("Unknown argument (" + arg + "), expected --multithreaded.");
+            }
+        }
+        List<Roster> problemList = new ArrayList<>();
+        for (GeneratorTypePreset generatorTypePreset : GeneratorTypePreset.values()) {
+            for (int[] scale : SCALES) {
+                RosterGeneratorConfig config = RosterGeneratorConfig.builder()
+                        .withGeneratorTypePreset(generatorTypePreset)
+                        .withSpotListSize(scale[0])
+                        .withDraftLengthInDays(scale[1])
+                        .withWorkDaysPerWeek(WORK_DAYS_PER_WEEK)
+                        .build();
+                Roster roster = new RosterGenerator().generateRoster(config);
+                // The report names the problems by their index
+                logger.info("Problem_{} is a {} with {} shifts.",
+                            problemList.size(), config, roster.getShiftList().size());
+                problemList.add(roster);
+            }
+        }
+
+        PlannerBenchmarkFactory benchmarkFactory = PlannerBenchmarkFactory.createFromXmlResource(benchmarkConfig);
+        PlannerBenchmark benchmark = benchmarkFactory.buildPlannerBenchmark(problemList.toArray(new Roster[0]));
+        benchmark.benchmarkAndShowReportInBrowser();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.generator.GeneratorTypePreset;
+import org.optaweb.employeerostering.generator.RosterGenerator;
+import org.optaweb.employeerostering.generator.RosterGeneratorConfig;
+import org.optaweb.employeerostering.service.solver.RosterHistoryCompactor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks that {@link org.optaweb.employeerostering.service.solver.EmployeeRosteringIncrementalScoreCalculator}
+ * gives the same scores as employeeRosteringScoreRules.drl: solves a small roster of every
+ * {@link GeneratorTypePreset} briefly with {@link #SOLVER_CONFIG}, in {@code FULL_ASSERT} with the DRL
+ * as the assertion score director, once as generated and once after the history compaction,
+ * so the carried over minutes are checked too.
+ * Exits with status 1 if any score differs.
+ */
+public class ScoreEquivalenceApp {
+
+    public static final String SOLVER_CONFIG
+            = "org/optaweb/employeerostering/service/solver/employeeRosteringScoreEquivalenceSolverConfig.xml";
+
+    private static final Logger logger = LoggerFactory.getLogger(ScoreEquivalenceApp.class);
+
+    private static final int SPOT_LIST_SIZE = 10;
+    private static final int DRAFT_LENGTH_IN_DAYS = 14;
+    private static final int WORK_DAYS_PER_WEEK = 5;
+
+    public static void main(String[] args) {
+        SolverFactory<Roster> solverFactory = SolverFactory.createFromXmlResource(SOLVER_CONFIG);
+        List<String> failureList = new ArrayList<>();
+        for (GeneratorTypePreset generatorTypePreset : GeneratorTypePreset.values()) {
+            RosterGeneratorConfig config = RosterGeneratorConfig.builder()
+                    .withGeneratorTypePreset(generatorTypePreset)
+                    .withSpotListSize(SPOT_LIST_SIZE)
+                    .withDraftLengthInDays(DRAFT_LENGTH_IN_DAYS)
+                    .withWorkDaysPerWeek(WORK_DAYS_PER_WEEK)
+                    .build();
+            for (boolean compactHistory : new boolean[]{false, true}) {
+                Roster roster = new RosterGenerator().generateRoster(config);
+                if (compactHistory) {
+                    new RosterHistoryCompactor().compact(roster);
+                }
+                String problemName = config + (compactHistory ? " with compacted history" : "");
+                try {
+                    Solver<Roster> solver = solverFactory.buildSolver();
+                    Roster solution = solver.solve(roster);
+                    logger.info("Equal scores for a {}: best score {}.", problemName, solution.getScore());
+                } catch (IllegalStateException e) {
+                    // FULL_ASSERT reports a score corruption with an IllegalStateException
+                    logger.error("Different scores for a {}.", problemName, e);
+                    failureList.add(problemName);
+                }
+            }
+        }
+        if (!failureList.isEmpty()) {
+            logger.error("The scores differ for {} problems: {}.", failureList.size(), failureList);
+            System.exit(1);
+        }
+        logger.info("The scores are equal for every problem.");
+    }
+}
@@ -17,6 +17,7 @@
 package org.optaweb.employeerostering.domain.common;
 
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -53,4 +54,33 @@ public class DateTimeUtils {
         return first.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR) == second.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)
                 && first.get(IsoFields.WEEK_BASED_YEAR) == second.get(IsoFields.WEEK_BASED_YEAR);
     }
+
+    public static long toEpochMinute(OffsetDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(), 60L);
+    }
+
+    public static int toDurationMinutes(OffsetDateTime start, OffsetDateTime end) {
+        return (int) Duration.between(start, end).toMinutes();
+    }
+
+    /**
+     * Numbers the weeks like {@link #sameWeek(DayOfWeek, OffsetDateTime, OffsetDateTime)} does,
+     * so two dates are in the same week if and only if their week buckets are equal.
+     * @param epochDay the local date as returned by {@link LocalDate#toEpochDay()}
+     * @param weekStarting never null
+     * @return the number of weeks since the week that contains 1970-01-01
+     */
+    public static int toWeekBucket(long epochDay, DayOfWeek weekStarting) {
+        // 1970-01-01 is a Thursday
+        long firstWeekStartEpochDay = -Math.floorMod(DayOfWeek.THURSDAY.getValue() - weekStarting.getValue(), 7);
+        return (int) Math.floorDiv(epochDay - firstWeekStartEpochDay, 7L);
+    }
+
+    /**
+     * @param date never null
+     * @return the number of months since January of the year 0
+     */
+    public static int toMonthBucket(LocalDate date) {
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.domain.common;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailability;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.shift.Shift;
+
+/**
+ * Numbers the weeks of a tenant, which start on {@link DayOfWeek weekStartDay} in the time zone of the tenant,
+ * so checking if 2 shifts are in the same week is an int comparison instead of
+ * {@link DateTimeUtils#sameWeek(DayOfWeek, OffsetDateTime, OffsetDateTime)}.
+ */
+public final class WeekBuckets {
+
+    private static final ConcurrentMap<ZoneId, WeekBuckets[]> ZONE_TO_WEEK_BUCKETS_MAP = new ConcurrentHashMap<>();
+
+    public static WeekBuckets of(Roster roster) {
+        return of(roster.getRosterParametrization().getWeekStartDay(), roster.getRosterState().getTimeZone());
+    }
+
+    public static WeekBuckets of(DayOfWeek weekStartDay, ZoneId zoneId) {
+        WeekBuckets[] weekStartDayToWeekBuckets = ZONE_TO_WEEK_BUCKETS_MAP.computeIfAbsent(
+                zoneId, z -> new WeekBuckets[DayOfWeek.values().length]);
+        WeekBuckets weekBuckets = weekStartDayToWeekBuckets[weekStartDay.ordinal()];
+        if (weekBuckets == null) {
+            // Racing threads create equal instances, so it does not matter which one wins
+            weekBuckets = new WeekBuckets(weekStartDay, zoneId);
+            weekStartDayToWeekBuckets[weekStartDay.ordinal()] = weekBuckets;
+        }
+        return weekBuckets;
+    }
+
+    private final DayOfWeek weekStartDay;
+    private final ZoneId zoneId;
+    private final ZoneRules zoneRules;
+    private final ZoneOffset fixedOffset; // Null if the zone has offset transitions
+
+    private WeekBuckets(DayOfWeek weekStartDay, ZoneId zoneId) {
+        this.weekStartDay = weekStartDay;
+        this.zoneId = zoneId;
+        this.zoneRules = zoneId.getRules();
+        this.fixedOffset = zoneRules.isFixedOffset() ? zoneRules.getOffset(Instant.EPOCH) : null;
+    }
+
+    /**
+     * @param dateTime never null
+     * @return the number of weeks between the week that contains 1970-01-01 and the week of the date time,
+     * both in the time zone of this instance
+     */
+    public int getWeekBucket(OffsetDateTime dateTime) {
+        ZoneOffset offset = (fixedOffset != null) ? fixedOffset : zoneRules.getOffset(dateTime.toInstant());
+        long localEpochSecond = dateTime.toEpochSecond() + offset.getTotalSeconds();
+        return DateTimeUtils.toWeekBucket(Math.floorDiv(localEpochSecond, 24L * 60L * 60L), weekStartDay);
+    }
+
+    public void assignWeekBuckets(Collection<Shift> shifts) {
+        for (Shift shift : shifts) {
+            shift.setWeekBuckets(this);
+        }
+    }
+
+    public void assignAvailabilityWeekBuckets(Collection<EmployeeAvailability> employeeAvailabilities) {
+        for (EmployeeAvailability employeeAvailability : employeeAvailabilities) {
+            employeeAvailability.setWeekBuckets(this);
+        }
+    }
+
+    public void assignWeekBuckets(Roster roster) {
+        assignWeekBuckets(roster.getShiftList());
+        assignAvailabilityWeekBuckets(roster.getEmployeeAvailabilityList());
+    }
+
+    public DayOfWeek getWeekStartDay() {
+        return weekStartDay;
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+}
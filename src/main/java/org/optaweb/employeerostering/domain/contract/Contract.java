@@ -25,6 +25,7 @@ import javax.validation.constraints.Size;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.optaweb.employeerostering.domain.common.AbstractPersistable;
+import org.optaweb.employeerostering.domain.violation.ContractMinutesViolation;
 
 // TODO: Single Responsibility Principle - acts as both domain entity and JSON-serializable entity
 public class Contract extends AbstractPersistable {
@@ -93,6 +94,26 @@ public class Contract extends AbstractPersistable {
         return true;
     }
 
+    /**
+     * @param type never null
+     * @return null if the minutes in a period of that type are not limited
+     */
+    @JsonIgnore
+    public Integer getMaximumMinutes(ContractMinutesViolation.Type type) {
+        switch (type) {
+            case DAY:
+                return maximumMinutesPerDay;
+            case WEEK:
+                return maximumMinutesPerWeek;
+            case MONTH:
+                return maximumMinutesPerMonth;
+            case YEAR:
+                return maximumMinutesPerYear;
+            default:
+                throw new IllegalStateException("The type (" + type + ") is not implemented.");
+        }
+    }
+
     @Override
     public String toString() {
         return name;
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.domain.contract;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.domain.violation.ContractMinutesViolation;
+
+/**
+ * A period in which the minutes of an employee are limited by its {@link Contract},
+ * a day, week, month or year, numbered like {@link Shift#getBucket(ContractMinutesViolation.Type)}.
+ * Not a problem fact: the contract minutes rules find the periods of an employee through its shifts.
+ */
+public class ContractPeriod {
+
+    private final ContractMinutesViolation.Type type;
+    private final int bucket;
+
+    public ContractPeriod(ContractMinutesViolation.Type type, int bucket) {
+        this.type = type;
+        this.bucket = bucket;
+    }
+
+    /**
+     * @param shiftList never null
+     * @return never null, every period that contains the start of at least 1 shift
+     */
+    public static List<ContractPeriod> extractContractPeriodList(List<Shift> shiftList) {
+        Set<ContractPeriod> contractPeriodSet = new LinkedHashSet<>();
+        ContractMinutesViolation.Type[] types = ContractMinutesViolation.Type.values();
+        for (Shift shift : shiftList) {
+            for (ContractMinutesViolation.Type type : types) {
+                contractPeriodSet.add(new ContractPeriod(type, shift.getBucket(type)));
+            }
+        }
+        return new ArrayList<>(contractPeriodSet);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ContractPeriod other = (ContractPeriod) o;
+        return type == other.type && bucket == other.bucket;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * type.hashCode() + bucket;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + bucket;
+    }
+
+    // ************************************************************************
+    // Simple getters
+    // ************************************************************************
+
+    public ContractMinutesViolation.Type getType() {
+        return type;
+    }
+
+    public int getBucket() {
+        return bucket;
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.domain.contract;
+
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.violation.ContractMinutesViolation;
+
+/**
+ * The minutes an employee worked in a {@link ContractPeriod} in shifts that are no longer in the roster,
+ * carried over into the contract minutes rules of that period.
+ * Created by the history compaction, or given as the starting offset of a year, month, week or day
+ * whose earlier shifts were never loaded.
+ * A roster has at most 1 per employee and period.
+ */
+public class EmployeePeriodMinutes {
+
+    private final Employee employee;
+    private final ContractMinutesViolation.Type type;
+    private final int bucket;
+    private final long minutes;
+
+    public EmployeePeriodMinutes(Employee employee, ContractMinutesViolation.Type type, int bucket, long minutes) {
+        this.employee = employee;
+        this.type = type;
+        this.bucket = bucket;
+        this.minutes = minutes;
+    }
+
+    @Override
+    public String toString() {
+        return employee + " " + type + " " + bucket + ": " + minutes + " minutes";
+    }
+
+    // ************************************************************************
+    // Simple getters
+    // ************************************************************************
+
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    public ContractMinutesViolation.Type getType() {
+        return type;
+    }
+
+    public int getBucket() {
+        return bucket;
+    }
+
+    public long getMinutes() {
+        return minutes;
+    }
+}
@@ -23,10 +23,20 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.optaweb.employeerostering.domain.common.AbstractPersistable;
 import org.optaweb.employeerostering.domain.contract.Contract;
 import org.optaweb.employeerostering.domain.skill.Skill;
-
+import org.optaweb.employeerostering.domain.skill.SkillIndex;
+import org.optaweb.employeerostering.domain.spot.Spot;
+
+/**
+ * Equal by id, as the other {@link AbstractPersistable}s, so the move threads rebase it by its planning id
+ * and 2 employees with the same name, contract and skills stay different employees.
+ * This changes the DRL joins such as {@code employee == $employee}: they used to match every employee
+ * with the same content, now only the employee with the same id. Use {@link #hasSameContent(Employee)}
+ * for the old equality.
+ */
 public class Employee extends AbstractPersistable {
 
     @NotNull
@@ -40,6 +50,9 @@ public class Employee extends AbstractPersistable {
     @NotNull
     private Set<Skill> skillProficiencySet;
 
+    // Mirror of skillProficiencySet assigned by SkillIndex, null until then or after the set is replaced
+    private long[] skillProficiencyBits = null;
+
     @SuppressWarnings("unused")
     public Employee() {
     }
@@ -51,6 +64,31 @@ public class Employee extends AbstractPersistable {
         this.skillProficiencySet = skillProficiencySet;
     }
 
+    /**
+     * A copy with the same id, which a problem fact change changes instead of the employee
+     * that the best solution shares.
+     * @param other never null
+     */
+    public Employee(Employee other) {
+        super(other);
+        this.name = other.name;
+        this.contract = other.contract;
+        this.skillProficiencySet = other.skillProficiencySet;
+        this.skillProficiencyBits = other.skillProficiencyBits;
+    }
+
+    /**
+     * Content equality, for the cases that compare employees regardless of their id, such as an import.
+     * @param other sometimes null
+     * @return true if the other employee has the same name, contract and skills
+     */
+    public boolean hasSameContent(Employee other) {
+        return other != null
+                && name.equals(other.name)
+                && contract.equals(other.contract)
+                && skillProficiencySet.equals(other.skillProficiencySet);
+    }
+
     public boolean hasSkill(Skill skill) {
         return skillProficiencySet.contains(skill);
     }
@@ -59,6 +97,19 @@ public class Employee extends AbstractPersistable {
         return skillProficiencySet.containsAll(skills);
     }
 
+    /**
+     * Uses the {@link SkillIndex} bits of both sides if they are assigned, else the skill sets.
+     * @param spot never null
+     * @return true if this employee has every required skill of the spot
+     */
+    public boolean hasRequiredSkills(Spot spot) {
+        long[] requiredSkillBits = spot.getRequiredSkillBits();
+        if (skillProficiencyBits != null && requiredSkillBits != null) {
+            return SkillIndex.containsAll(skillProficiencyBits, requiredSkillBits);
+        }
+        return skillProficiencySet.containsAll(spot.getRequiredSkillSet());
+    }
+
     @Override
     public String toString() {
         return name;
@@ -82,30 +133,23 @@ public class Employee extends AbstractPersistable {
 
     public void setSkillProficiencySet(Set<Skill> skillProficiencySet) {
         this.skillProficiencySet = skillProficiencySet;
+        this.skillProficiencyBits = null;
     }
 
-    public Contract getContract() {
-        return contract;
+    @JsonIgnore
+    public long[] getSkillProficiencyBits() {
+        return skillProficiencyBits;
     }
 
-    public void setContract(Contract contract) {
-        this.contract = contract;
+    public void setSkillProficiencyBits(long[] skillProficiencyBits) {
+        this.skillProficiencyBits = skillProficiencyBits;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (o instanceof Employee) {
-            Employee other = (Employee) o;
-            return this.name.equals(other.getName()) &&
-                    this.contract.equals(other.getContract()) &&
-                    this.skillProficiencySet.equals(other.getSkillProficiencySet());
-        } else {
-            return false;
-        }
+    public Contract getContract() {
+        return contract;
     }
 
-    @Override
-    public int hashCode() {
-        return 31 * ((31 * name.hashCode()) ^ contract.hashCode()) ^ skillProficiencySet.hashCode();
+    public void setContract(Contract contract) {
+        this.contract = contract;
     }
 }
@@ -16,6 +16,7 @@
 
 package org.optaweb.employeerostering.domain.employee;
 
+import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
@@ -25,6 +26,8 @@ import javax.validation.constraints.NotNull;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.optaweb.employeerostering.domain.common.AbstractPersistable;
+import org.optaweb.employeerostering.domain.common.DateTimeUtils;
+import org.optaweb.employeerostering.domain.common.WeekBuckets;
 import org.optaweb.employeerostering.domain.employee.view.EmployeeAvailabilityView;
 
 // TODO: Single Responsibility Principle - acts as both domain entity and JSON-serializable entity
@@ -38,6 +41,14 @@ public class EmployeeAvailability extends AbstractPersistable {
     @NotNull
     private OffsetDateTime endDateTime;
 
+    // Derived from startDateTime and endDateTime, so the score rules never do date time arithmetic
+    private long startEpochMinute;
+    private long endEpochMinute;
+    private int durationMinutes;
+    private WeekBuckets weekBuckets = null; // Of the roster, weeks start on Monday until it is assigned
+    private int weekBucket;
+    private int monthBucket;
+
     @NotNull
     private EmployeeAvailabilityState state;
 
@@ -51,6 +62,7 @@ public class EmployeeAvailability extends AbstractPersistable {
         this.employee = employee;
         this.startDateTime = startDateTime;
         this.endDateTime = endDateTime;
+        updateEpochFields();
     }
 
     public EmployeeAvailability(ZoneId zoneId, EmployeeAvailabilityView employeeAvailabilityView, Employee employee) {
@@ -61,6 +73,39 @@ public class EmployeeAvailability extends AbstractPersistable {
         this.endDateTime = OffsetDateTime.of(employeeAvailabilityView.getEndDateTime(),
                                              zoneId.getRules().getOffset(employeeAvailabilityView.getEndDateTime()));
         this.state = employeeAvailabilityView.getState();
+        updateEpochFields();
+    }
+
+    /**
+     * @param other never null
+     */
+    public EmployeeAvailability(EmployeeAvailability other) {
+        super(other);
+        this.employee = other.employee;
+        this.startDateTime = other.startDateTime;
+        this.endDateTime = other.endDateTime;
+        this.startEpochMinute = other.startEpochMinute;
+        this.endEpochMinute = other.endEpochMinute;
+        this.durationMinutes = other.durationMinutes;
+        this.weekBuckets = other.weekBuckets;
+        this.weekBucket = other.weekBucket;
+        this.monthBucket = other.monthBucket;
+        this.state = other.state;
+    }
+
+    private void updateEpochFields() {
+        if (startDateTime != null) {
+            startEpochMinute = DateTimeUtils.toEpochMinute(startDateTime);
+            weekBucket = (weekBuckets != null) ? weekBuckets.getWeekBucket(startDateTime)
+                    : DateTimeUtils.toWeekBucket(startDateTime.toLocalDate().toEpochDay(), DayOfWeek.MONDAY);
+            monthBucket = DateTimeUtils.toMonthBucket(startDateTime.toLocalDate());
+        }
+        if (endDateTime != null) {
+            endEpochMinute = DateTimeUtils.toEpochMinute(endDateTime);
+        }
+        if (startDateTime != null && endDateTime != null) {
+            durationMinutes = DateTimeUtils.toDurationMinutes(startDateTime, endDateTime);
+        }
     }
 
     @AssertTrue
@@ -97,6 +142,7 @@ public class EmployeeAvailability extends AbstractPersistable {
 
     public void setStartDateTime(OffsetDateTime startDateTime) {
         this.startDateTime = startDateTime;
+        updateEpochFields();
     }
 
     public OffsetDateTime getEndDateTime() {
@@ -105,6 +151,43 @@ public class EmployeeAvailability extends AbstractPersistable {
 
     public void setEndDateTime(OffsetDateTime endDateTime) {
         this.endDateTime = endDateTime;
+        updateEpochFields();
+    }
+
+    @JsonIgnore
+    public long getStartEpochMinute() {
+        return startEpochMinute;
+    }
+
+    @JsonIgnore
+    public long getEndEpochMinute() {
+        return endEpochMinute;
+    }
+
+    @JsonIgnore
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    @JsonIgnore
+    public int getWeekBucket() {
+        return weekBucket;
+    }
+
+    /**
+     * Kept by the availability, so a later change of {@link #getStartDateTime()} or {@link #inTimeZone(ZoneId)}
+     * numbers the week with the week start of the roster too.
+     * @param weekBuckets the {@link WeekBuckets} of the roster, never null
+     */
+    @JsonIgnore
+    public void setWeekBuckets(WeekBuckets weekBuckets) {
+        this.weekBuckets = weekBuckets;
+        updateEpochFields();
+    }
+
+    @JsonIgnore
+    public int getMonthBucket() {
+        return monthBucket;
     }
 
     public EmployeeAvailabilityState getState() {
@@ -116,6 +199,11 @@ public class EmployeeAvailability extends AbstractPersistable {
     }
 
     public EmployeeAvailability inTimeZone(ZoneId zoneId) {
-        return new EmployeeAvailability(zoneId, new EmployeeAvailabilityView(zoneId, this), getEmployee());
+        EmployeeAvailability out = new EmployeeAvailability(zoneId, new EmployeeAvailabilityView(zoneId, this),
+                                                            getEmployee());
+        if (weekBuckets != null) {
+            out.setWeekBuckets(weekBuckets);
+        }
+        return out;
     }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.domain.employee;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.optaweb.employeerostering.domain.shift.Shift;
+
+/**
+ * The {@link EmployeeAvailability}s per employee, sorted by start,
+ * so the availabilities that overlap a shift are found with a binary search
+ * instead of joining every shift with every availability.
+ * Overlap is inclusive, as in {@link org.optaweb.employeerostering.domain.common.DateTimeUtils#doTimeslotsIntersect}.
+ */
+public final class EmployeeAvailabilityIndex {
+
+    private static final Comparator<EmployeeAvailability> START_COMPARATOR
+            = Comparator.comparingLong(EmployeeAvailability::getStartEpochMinute);
+
+    private final Map<Employee, Timeline> employeeToTimelineMap;
+
+    public EmployeeAvailabilityIndex(Collection<EmployeeAvailability> employeeAvailabilities) {
+        Map<Employee, List<EmployeeAvailability>> employeeToAvailabilityListMap = new IdentityHashMap<>();
+        for (EmployeeAvailability employeeAvailability : employeeAvailabilities) {
+            employeeToAvailabilityListMap.computeIfAbsent(employeeAvailability.getEmployee(), e -> new ArrayList<>())
+                    .add(employeeAvailability);
+        }
+        employeeToTimelineMap = new IdentityHashMap<>(employeeToAvailabilityListMap.size());
+        employeeToAvailabilityListMap.forEach((employee, availabilityList) -> employeeToTimelineMap.put(
+                employee, new Timeline(availabilityList)));
+    }
+
+    /**
+     * @param employee never null
+     * @param shift never null
+     * @return never null, the availabilities of the employee that overlap the shift
+     */
+    public List<EmployeeAvailability> getOverlappingAvailabilityList(Employee employee, Shift shift) {
+        Timeline timeline = employeeToTimelineMap.get(employee);
+        if (timeline == null) {
+            return Collections.emptyList();
+        }
+        return timeline.getOverlappingList(shift.getStartEpochMinute(), shift.getEndEpochMinute());
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeAvailabilityIndex (" + employeeToTimelineMap.size() + " employees)";
+    }
+
+    private static final class Timeline {
+
+        private final EmployeeAvailability[] availabilities;
+        private final long[] startEpochMinutes;
+        private final long maximumDurationMinutes;
+
+        private Timeline(List<EmployeeAvailability> availabilityList) {
+            availabilityList.sort(START_COMPARATOR);
+            availabilities = availabilityList.toArray(new EmployeeAvailability[0]);
+            startEpochMinutes = new long[availabilities.length];
+            long maximumDuration = 0L;
+            for (int i = 0; i < availabilities.length; i++) {
+                startEpochMinutes[i] = availabilities[i].getStartEpochMinute();
+                maximumDuration = Math.max(maximumDuration, availabilities[i].getDurationMinutes());
+            }
+            maximumDurationMinutes = maximumDuration;
+        }
+
+        private List<EmployeeAvailability> getOverlappingList(long startEpochMinute, long endEpochMinute) {
+            // No availability that starts before this one can still end at or after the shift start
+            int i = lowerBound(startEpochMinute - maximumDurationMinutes);
+            List<EmployeeAvailability> overlappingList = null;
+            for (; i < availabilities.length && startEpochMinutes[i] <= endEpochMinute; i++) {
+                if (availabilities[i].getEndEpochMinute() >= startEpochMinute) {
+                    if (overlappingList == null) {
+                        overlappingList = new ArrayList<>(2);
+                    }
+                    overlappingList.add(availabilities[i]);
+                }
+            }
+            return overlappingList == null ? Collections.emptyList() : overlappingList;
+        }
+
+        private int lowerBound(long epochMinute) {
+            int low = 0;
+            int high = startEpochMinutes.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (startEpochMinutes[middle] < epochMinute) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
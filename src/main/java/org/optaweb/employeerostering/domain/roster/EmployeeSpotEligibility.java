@@ -0,0 +1,134 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.domain.roster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.skill.SkillIndex;
+import org.optaweb.employeerostering.domain.spot.Spot;
+
+/**
+ * A bit per employee and spot, set if the employee has every required skill of the spot,
+ * so the required skill constraint is a bit lookup instead of a {@link java.util.Set#containsAll} per shift.
+ * Immutable: {@link Roster#getEmployeeSpotEligibility()} builds a new one after the employees, spots or skills change.
+ */
+public final class EmployeeSpotEligibility {
+
+    private final List<Employee> employeeList;
+    private final Map<Employee, Integer> employeeToOrdinalMap;
+    private final Map<Spot, Integer> spotToOrdinalMap;
+    private final int wordCountPerEmployee;
+    private final long[] bits;
+    // Indexed by spot ordinal
+    private final List<List<Employee>> eligibleEmployeeListList;
+
+    public EmployeeSpotEligibility(SkillIndex skillIndex, List<Employee> employeeList, List<Spot> spotList) {
+        this.employeeList = employeeList;
+        int spotListSize = spotList.size();
+        spotToOrdinalMap = new IdentityHashMap<>(spotListSize);
+        long[][] requiredSkillBitsPerSpot = new long[spotListSize][];
+        for (int spotOrdinal = 0; spotOrdinal < spotListSize; spotOrdinal++) {
+            Spot spot = spotList.get(spotOrdinal);
+            spotToOrdinalMap.put(spot, spotOrdinal);
+            requiredSkillBitsPerSpot[spotOrdinal] = skillIndex.toBits(spot.getRequiredSkillSet());
+        }
+        wordCountPerEmployee = (spotListSize + 63) >>> 6;
+        employeeToOrdinalMap = new IdentityHashMap<>(employeeList.size());
+        bits = new long[employeeList.size() * wordCountPerEmployee];
+        for (int employeeOrdinal = 0; employeeOrdinal < employeeList.size(); employeeOrdinal++) {
+            Employee employee = employeeList.get(employeeOrdinal);
+            employeeToOrdinalMap.put(employee, employeeOrdinal);
+            long[] skillProficiencyBits = skillIndex.toBits(employee.getSkillProficiencySet());
+            int offset = employeeOrdinal * wordCountPerEmployee;
+            for (int spotOrdinal = 0; spotOrdinal < spotListSize; spotOrdinal++) {
+                if (SkillIndex.containsAll(skillProficiencyBits, requiredSkillBitsPerSpot[spotOrdinal])) {
+                    bits[offset + (spotOrdinal >>> 6)] |= 1L << spotOrdinal;
+                }
+            }
+        }
+        eligibleEmployeeListList = new ArrayList<>(spotListSize);
+        for (int spotOrdinal = 0; spotOrdinal < spotListSize; spotOrdinal++) {
+            eligibleEmployeeListList.add(extractEligibleEmployeeList(spotOrdinal));
+        }
+    }
+
+    public static EmployeeSpotEligibility of(Roster roster) {
+        return new EmployeeSpotEligibility(SkillIndex.of(roster), roster.getEmployeeList(), roster.getSpotList());
+    }
+
+    /**
+     * @param employee never null
+     * @param spot never null
+     * @return true if the employee has every required skill of the spot
+     */
+    public boolean isEligible(Employee employee, Spot spot) {
+        Integer employeeOrdinal = employeeToOrdinalMap.get(employee);
+        Integer spotOrdinal = spotToOrdinalMap.get(spot);
+        if (employeeOrdinal == null || spotOrdinal == null) {
+            // Not known when this matrix was built
+            return employee.hasRequiredSkills(spot);
+        }
+        return (bits[employeeOrdinal * wordCountPerEmployee + (spotOrdinal >>> 6)] & (1L << spotOrdinal)) != 0L;
+    }
+
+    /**
+     * @param spot never null, known when this matrix was built
+     * @return never null, unmodifiable, in the order of the employee list
+     */
+    public List<Employee> getEligibleEmployeeList(Spot spot) {
+        Integer spotOrdinal = spotToOrdinalMap.get(spot);
+        if (spotOrdinal == null) {
+            throw new IllegalArgumentException("The spot (" + spot + ") was not known when this matrix was built.");
+        }
+        return eligibleEmployeeListList.get(spotOrdinal);
+    }
+
+    private List<Employee> extractEligibleEmployeeList(int spotOrdinal) {
+        int wordIndex = spotOrdinal >>> 6;
+        long mask = 1L << spotOrdinal;
+        List<Employee> eligibleEmployeeList = new ArrayList<>();
+        for (int employeeOrdinal = 0; employeeOrdinal < employeeList.size(); employeeOrdinal++) {
+            if ((bits[employeeOrdinal * wordCountPerEmployee + wordIndex] & mask) != 0L) {
+                eligibleEmployeeList.add(employeeList.get(employeeOrdinal));
+            }
+        }
+        return Collections.unmodifiableList(eligibleEmployeeList);
+    }
+
+    /**
+     * Gives every spot its eligible employee list, which all shifts of that spot share as their value range.
+     * The spots must belong to the roster this matrix is built for:
+     * a rebuild for a working solution first replaces the spots that the best solution shares with copies.
+     * @param spotList never null, the spots this matrix was built from
+     */
+    public void assignEligibleEmployeeLists(List<Spot> spotList) {
+        for (Spot spot : spotList) {
+            spot.setEligibleEmployeeList(getEligibleEmployeeList(spot));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeSpotEligibility (" + employeeToOrdinalMap.size() + " employees x "
+                + spotToOrdinalMap.size() + " spots)";
+    }
+}
@@ -16,24 +16,28 @@
 
 package org.optaweb.employeerostering.domain.roster;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.optaplanner.core.api.domain.solution.PlanningEntityCollectionProperty;
 import org.optaplanner.core.api.domain.solution.PlanningScore;
 import org.optaplanner.core.api.domain.solution.PlanningSolution;
 import org.optaplanner.core.api.domain.solution.drools.ProblemFactCollectionProperty;
 import org.optaplanner.core.api.domain.solution.drools.ProblemFactProperty;
-import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
 import org.optaweb.employeerostering.domain.common.AbstractPersistable;
+import org.optaweb.employeerostering.domain.contract.EmployeePeriodMinutes;
 import org.optaweb.employeerostering.domain.employee.Employee;
 import org.optaweb.employeerostering.domain.employee.EmployeeAvailability;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailabilityIndex;
 import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.domain.shift.ShiftConflictGraph;
 import org.optaweb.employeerostering.domain.skill.Skill;
 import org.optaweb.employeerostering.domain.spot.Spot;
 import org.optaweb.employeerostering.domain.tenant.RosterParametrization;
 
-@PlanningSolution
+@PlanningSolution(solutionCloner = RosterSolutionCloner.class)
 public class Roster extends AbstractPersistable {
 
     @ProblemFactCollectionProperty
@@ -41,7 +45,6 @@ public class Roster extends AbstractPersistable {
     @ProblemFactCollectionProperty
     private List<Spot> spotList;
     @ProblemFactCollectionProperty
-    @ValueRangeProvider(id = "employeeRange")
     private List<Employee> employeeList;
     @ProblemFactCollectionProperty
     private List<EmployeeAvailability> employeeAvailabilityList;
@@ -53,10 +56,20 @@ public class Roster extends AbstractPersistable {
 
     @PlanningEntityCollectionProperty
     private List<Shift> shiftList;
+    // The minutes of the shifts removed by the history compaction
+    @ProblemFactCollectionProperty
+    private List<EmployeePeriodMinutes> employeePeriodMinutesList = new ArrayList<>();
 
     @PlanningScore
     private HardMediumSoftLongScore score = null;
 
+    // Derived from employeeList, spotList and skillList, built on first use
+    private EmployeeSpotEligibility employeeSpotEligibility = null;
+    // Derived from employeeAvailabilityList, built on first use
+    private EmployeeAvailabilityIndex employeeAvailabilityIndex = null;
+    // Derived from the times of shiftList, built on first use
+    private ShiftConflictGraph shiftConflictGraph = null;
+
     @SuppressWarnings("unused")
     public Roster() {}
 
@@ -71,6 +84,98 @@ public class Roster extends AbstractPersistable {
         this.rosterParametrization = rosterParametrization;
         this.rosterState = rosterState;
         this.shiftList = shiftList;
+        // Assigns the value range of the shifts
+        getEmployeeSpotEligibility();
+    }
+
+    /**
+     * Used by {@link RosterSolutionCloner} and the solution partitioner:
+     * shares every field of the original, including the derived indexes, apart from the shift list.
+     * @param original never null
+     * @param shiftList never null, clones of the shifts of the original
+     */
+    public Roster(Roster original, List<Shift> shiftList) {
+        super(original);
+        this.skillList = original.skillList;
+        this.spotList = original.spotList;
+        this.employeeList = original.employeeList;
+        this.employeeAvailabilityList = original.employeeAvailabilityList;
+        this.rosterParametrization = original.rosterParametrization;
+        this.rosterState = original.rosterState;
+        this.shiftList = shiftList;
+        this.employeePeriodMinutesList = original.employeePeriodMinutesList;
+        this.score = original.score;
+        this.employeeSpotEligibility = original.employeeSpotEligibility;
+        this.employeeAvailabilityIndex = original.employeeAvailabilityIndex;
+        this.shiftConflictGraph = original.shiftConflictGraph;
+    }
+
+    /**
+     * Built by the constructor, or on first use after a reset, and shared by the clones of this roster.
+     * Building it also assigns {@link Spot#getEligibleEmployeeList()}, the value range of {@link Shift#getEmployee()},
+     * so a problem fact change that resets it replaces the spots with copies first.
+     * @return never null
+     */
+    @ProblemFactProperty
+    @JsonIgnore
+    public EmployeeSpotEligibility getEmployeeSpotEligibility() {
+        if (employeeSpotEligibility == null) {
+            employeeSpotEligibility = EmployeeSpotEligibility.of(this);
+            employeeSpotEligibility.assignEligibleEmployeeLists(spotList);
+        }
+        return employeeSpotEligibility;
+    }
+
+    /**
+     * Built on first use and shared by the clones of this roster.
+     * @return never null
+     */
+    @ProblemFactProperty
+    @JsonIgnore
+    public EmployeeAvailabilityIndex getEmployeeAvailabilityIndex() {
+        if (employeeAvailabilityIndex == null) {
+            employeeAvailabilityIndex = new EmployeeAvailabilityIndex(employeeAvailabilityList);
+        }
+        return employeeAvailabilityIndex;
+    }
+
+    /**
+     * Built on first use and shared by the clones of this roster.
+     * Because the best solution shares it, a problem fact change that adds or removes shifts
+     * calls {@link #resetShiftConflictGraph()} instead of updating it in place.
+     * @return never null
+     */
+    @ProblemFactProperty
+    @JsonIgnore
+    public ShiftConflictGraph getShiftConflictGraph() {
+        if (shiftConflictGraph == null) {
+            shiftConflictGraph = new ShiftConflictGraph(shiftList, ShiftConflictGraph.DEFAULT_MINIMUM_REST_MINUTES);
+        }
+        return shiftConflictGraph;
+    }
+
+    /**
+     * Call from a problem fact change that adds or removes shifts,
+     * before the score director reinserts {@link #getShiftConflictGraph()}.
+     */
+    public void resetShiftConflictGraph() {
+        shiftConflictGraph = null;
+    }
+
+    /**
+     * Call from a problem fact change that adds, removes or changes an {@link EmployeeAvailability},
+     * before the score director reinserts {@link #getEmployeeAvailabilityIndex()}.
+     */
+    public void resetEmployeeAvailabilityIndex() {
+        employeeAvailabilityIndex = null;
+    }
+
+    /**
+     * Call from a problem fact change that changes an {@link Employee}, {@link Spot} or {@link Skill},
+     * before the score director reinserts {@link #getEmployeeSpotEligibility()}.
+     */
+    public void resetEmployeeSpotEligibility() {
+        employeeSpotEligibility = null;
     }
 
     // ************************************************************************
@@ -83,6 +188,7 @@ public class Roster extends AbstractPersistable {
 
     public void setSkillList(List<Skill> skillList) {
         this.skillList = skillList;
+        this.employeeSpotEligibility = null;
     }
 
     public List<Spot> getSpotList() {
@@ -91,6 +197,7 @@ public class Roster extends AbstractPersistable {
 
     public void setSpotList(List<Spot> spotList) {
         this.spotList = spotList;
+        this.employeeSpotEligibility = null;
     }
 
     public List<Employee> getEmployeeList() {
@@ -99,6 +206,7 @@ public class Roster extends AbstractPersistable {
 
     public void setEmployeeList(List<Employee> employeeList) {
         this.employeeList = employeeList;
+        this.employeeSpotEligibility = null;
     }
 
     public List<EmployeeAvailability> getEmployeeAvailabilityList() {
@@ -107,6 +215,7 @@ public class Roster extends AbstractPersistable {
 
     public void setEmployeeAvailabilityList(List<EmployeeAvailability> employeeAvailabilityList) {
         this.employeeAvailabilityList = employeeAvailabilityList;
+        this.employeeAvailabilityIndex = null;
     }
 
     public RosterParametrization getRosterParametrization() {
@@ -131,6 +240,15 @@ public class Roster extends AbstractPersistable {
 
     public void setShiftList(List<Shift> shiftList) {
         this.shiftList = shiftList;
+        this.shiftConflictGraph = null;
+    }
+
+    public List<EmployeePeriodMinutes> getEmployeePeriodMinutesList() {
+        return employeePeriodMinutesList;
+    }
+
+    public void setEmployeePeriodMinutesList(List<EmployeePeriodMinutes> employeePeriodMinutesList) {
+        this.employeePeriodMinutesList = employeePeriodMinutesList;
     }
 
     public HardMediumSoftLongScore getScore() {
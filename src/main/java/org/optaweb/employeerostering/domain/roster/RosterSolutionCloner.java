@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.domain.roster;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.optaplanner.core.api.domain.solution.cloner.SolutionCloner;
+import org.optaweb.employeerostering.domain.shift.Shift;
+
+/**
+ * Clones the {@link Shift}s, the only planning entities, and shares every problem fact.
+ * No problem fact references a shift, so nothing else has to be cloned.
+ * Replaces the reflection of the default cloner, which runs on every new best solution.
+ * Any new field of {@link Roster} or {@link Shift} must be copied by their cloning constructors.
+ */
+public class RosterSolutionCloner implements SolutionCloner<Roster> {
+
+    @Override
+    public Roster cloneSolution(Roster original) {
+        List<Shift> originalShiftList = original.getShiftList();
+        List<Shift> shiftList = new ArrayList<>(originalShiftList.size());
+        for (Shift shift : originalShiftList) {
+            shiftList.add(new Shift(shift));
+        }
+        return new Roster(original, shiftList);
+    }
+}
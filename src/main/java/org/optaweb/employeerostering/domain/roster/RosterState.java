@@ -36,6 +36,8 @@ public class RosterState extends AbstractPersistable {
     private Integer publishNotice; // In number of days
     @NotNull
     private LocalDate firstDraftDate;
+    // Derived from firstDraftDate, so isDraft(Shift) compares 2 longs
+    private long firstDraftEpochDay;
     @NotNull
     private final Integer publishLength; // In number of days
     @NotNull
@@ -66,6 +68,7 @@ public class RosterState extends AbstractPersistable {
         super(tenantId);
         this.publishNotice = publishNotice;
         this.firstDraftDate = firstDraftDate;
+        this.firstDraftEpochDay = firstDraftDate.toEpochDay();
         this.publishLength = publishLength;
         this.draftLength = draftLength;
         this.unplannedRotationOffset = unplannedRotationOffset;
@@ -111,9 +114,15 @@ public class RosterState extends AbstractPersistable {
         return isHistoric(shift.getStartDateTime());
     }
 
+    /**
+     * Same as {@link #isDraft(OffsetDateTime)} of the start, which compares in the offset of the start,
+     * but without date time arithmetic: it is called for every selected move.
+     * @param shift never null
+     * @return true if the shift starts on or after {@link #getFirstDraftDate()}
+     */
     @JsonIgnore
     public boolean isDraft(Shift shift) {
-        return isDraft(shift.getStartDateTime());
+        return shift.getStartEpochDay() >= firstDraftEpochDay;
     }
 
     @JsonIgnore
@@ -175,6 +184,7 @@ public class RosterState extends AbstractPersistable {
 
     public void setFirstDraftDate(LocalDate firstDraftDate) {
         this.firstDraftDate = firstDraftDate;
+        this.firstDraftEpochDay = firstDraftDate.toEpochDay();
     }
 
     public Integer getUnplannedRotationOffset() {
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.domain.shift;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import org.optaweb.employeerostering.domain.roster.Roster;
+
+/**
+ * Only the shifts of the draft are movable: the historic and published shifts can no longer change,
+ * so the move selectors skip them and the search space shrinks to the draft.
+ * The pins of {@link Shift#isPinnedByUser()} still apply on top of it.
+ */
+public class DraftShiftSelectionFilter implements SelectionFilter<Roster, Shift> {
+
+    @Override
+    public boolean accept(ScoreDirector<Roster> scoreDirector, Shift shift) {
+        return scoreDirector.getWorkingSolution().getRosterState().isDraft(shift);
+    }
+}
@@ -16,21 +16,28 @@
 
 package org.optaweb.employeerostering.domain.shift;
 
+import java.time.DayOfWeek;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.Comparator;
+import java.util.List;
 
 import javax.validation.constraints.NotNull;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
 import org.optaplanner.core.api.domain.entity.PlanningPin;
+import org.optaplanner.core.api.domain.valuerange.ValueRangeProvider;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 import org.optaweb.employeerostering.domain.common.AbstractPersistable;
+import org.optaweb.employeerostering.domain.common.DateTimeUtils;
+import org.optaweb.employeerostering.domain.common.WeekBuckets;
 import org.optaweb.employeerostering.domain.employee.Employee;
 import org.optaweb.employeerostering.domain.shift.view.ShiftView;
 import org.optaweb.employeerostering.domain.spot.Spot;
+import org.optaweb.employeerostering.domain.violation.ContractMinutesViolation;
 
-@PlanningEntity
+@PlanningEntity(movableEntitySelectionFilter = DraftShiftSelectionFilter.class)
 public class Shift extends AbstractPersistable implements Comparable<Shift> {
 
     private static final Comparator<Shift> PILLAR_SEQUENCE_COMPARATOR = Comparator.comparing(Shift::getStartDateTime)
@@ -46,6 +53,17 @@ public class Shift extends AbstractPersistable implements Comparable<Shift> {
     @NotNull
     private OffsetDateTime endDateTime;
 
+    // Derived from startDateTime and endDateTime, so the score rules never do date time arithmetic
+    private long startEpochMinute;
+    private long endEpochMinute;
+    private int durationMinutes;
+    private long startEpochDay; // In the offset of startDateTime
+    private WeekBuckets weekBuckets = null; // Of the roster, weeks start on Monday until it is assigned
+    private int weekBucket;
+    private int monthBucket;
+    private int yearBucket;
+    private int conflictGraphOrdinal = -1; // Assigned by ShiftConflictGraph, copied by the solution clones
+
     @PlanningPin
     private boolean pinnedByUser = false;
 
@@ -67,6 +85,7 @@ public class Shift extends AbstractPersistable implements Comparable<Shift> {
         this.endDateTime = endDateTime;
         this.spot = spot;
         this.rotationEmployee = rotationEmployee;
+        updateEpochFields();
     }
 
     public Shift(ZoneId zoneId, ShiftView shiftView, Spot spot) {
@@ -82,6 +101,62 @@ public class Shift extends AbstractPersistable implements Comparable<Shift> {
         this.spot = spot;
         this.pinnedByUser = shiftView.isPinnedByUser();
         this.rotationEmployee = rotationEmployee;
+        updateEpochFields();
+    }
+
+    /**
+     * A planning clone: shares the spot and the employees, copies the derived fields as they are.
+     * @param other never null
+     */
+    public Shift(Shift other) {
+        super(other);
+        this.rotationEmployee = other.rotationEmployee;
+        this.spot = other.spot;
+        this.startDateTime = other.startDateTime;
+        this.endDateTime = other.endDateTime;
+        this.startEpochMinute = other.startEpochMinute;
+        this.endEpochMinute = other.endEpochMinute;
+        this.durationMinutes = other.durationMinutes;
+        this.startEpochDay = other.startEpochDay;
+        this.weekBuckets = other.weekBuckets;
+        this.weekBucket = other.weekBucket;
+        this.monthBucket = other.monthBucket;
+        this.yearBucket = other.yearBucket;
+        this.conflictGraphOrdinal = other.conflictGraphOrdinal;
+        this.pinnedByUser = other.pinnedByUser;
+        this.employee = other.employee;
+    }
+
+    private void updateEpochFields() {
+        if (startDateTime != null) {
+            startEpochMinute = DateTimeUtils.toEpochMinute(startDateTime);
+            startEpochDay = startDateTime.toLocalDate().toEpochDay();
+            weekBucket = (weekBuckets != null) ? weekBuckets.getWeekBucket(startDateTime)
+                    : DateTimeUtils.toWeekBucket(startEpochDay, DayOfWeek.MONDAY);
+            monthBucket = DateTimeUtils.toMonthBucket(startDateTime.toLocalDate());
+            yearBucket = startDateTime.getYear();
+        }
+        if (endDateTime != null) {
+            endEpochMinute = DateTimeUtils.toEpochMinute(endDateTime);
+        }
+        if (startDateTime != null && endDateTime != null) {
+            durationMinutes = DateTimeUtils.toDurationMinutes(startDateTime, endDateTime);
+        }
+    }
+
+    /**
+     * Only the employees with every required skill of the spot, shared by all shifts of the spot.
+     * @return never null
+     */
+    @ValueRangeProvider(id = "employeeRange")
+    @JsonIgnore
+    public List<Employee> getEligibleEmployeeList() {
+        List<Employee> eligibleEmployeeList = spot.getEligibleEmployeeList();
+        if (eligibleEmployeeList == null) {
+            throw new IllegalStateException("The spot (" + spot + ") of shift (" + this
+                                                    + ") has no eligibleEmployeeList: it is not in a Roster.");
+        }
+        return eligibleEmployeeList;
     }
 
     @Override
@@ -112,6 +187,7 @@ public class Shift extends AbstractPersistable implements Comparable<Shift> {
 
     public void setStartDateTime(OffsetDateTime startDateTime) {
         this.startDateTime = startDateTime;
+        updateEpochFields();
     }
 
     public OffsetDateTime getEndDateTime() {
@@ -120,6 +196,92 @@ public class Shift extends AbstractPersistable implements Comparable<Shift> {
 
     public void setEndDateTime(OffsetDateTime endDateTime) {
         this.endDateTime = endDateTime;
+        updateEpochFields();
+    }
+
+    @JsonIgnore
+    public long getStartEpochMinute() {
+        return startEpochMinute;
+    }
+
+    @JsonIgnore
+    public long getEndEpochMinute() {
+        return endEpochMinute;
+    }
+
+    @JsonIgnore
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    @JsonIgnore
+    public long getStartEpochDay() {
+        return startEpochDay;
+    }
+
+    @JsonIgnore
+    public int getWeekBucket() {
+        return weekBucket;
+    }
+
+    /**
+     * Kept by the shift, so a later change of {@link #getStartDateTime()} or {@link #inTimeZone(ZoneId)}
+     * numbers the week with the week start of the roster too.
+     * @param weekBuckets the {@link WeekBuckets} of the roster, never null
+     */
+    @JsonIgnore
+    public void setWeekBuckets(WeekBuckets weekBuckets) {
+        this.weekBuckets = weekBuckets;
+        updateEpochFields();
+    }
+
+    @JsonIgnore
+    public int getMonthBucket() {
+        return monthBucket;
+    }
+
+    @JsonIgnore
+    public int getYearBucket() {
+        return yearBucket;
+    }
+
+    /**
+     * @return the epoch day of {@link #getStartDateTime()}, in its offset
+     */
+    @JsonIgnore
+    public int getDayBucket() {
+        return (int) startEpochDay;
+    }
+
+    /**
+     * @param type never null
+     * @return the bucket of the period of that type that contains {@link #getStartDateTime()}
+     */
+    public int getBucket(ContractMinutesViolation.Type type) {
+        switch (type) {
+            case DAY:
+                return getDayBucket();
+            case WEEK:
+                return weekBucket;
+            case MONTH:
+                return monthBucket;
+            case YEAR:
+                return yearBucket;
+            default:
+                throw new IllegalStateException("The type (" + type + ") is not implemented.");
+        }
+    }
+
+    /**
+     * @return {@code >= 0} once the shift is in the {@link ShiftConflictGraph} of the roster, -1 before
+     */
+    @JsonIgnore
+    public int getConflictGraphOrdinal() {
+        return conflictGraphOrdinal;
+    }
+
+    public void setConflictGraphOrdinal(int conflictGraphOrdinal) {
+        this.conflictGraphOrdinal = conflictGraphOrdinal;
     }
 
     public boolean isPinnedByUser() {
@@ -149,6 +311,9 @@ public class Shift extends AbstractPersistable implements Comparable<Shift> {
     public Shift inTimeZone(ZoneId zoneId) {
         Shift out = new Shift(zoneId, new ShiftView(zoneId, this), getSpot(), getRotationEmployee());
         out.setEmployee(getEmployee());
+        if (weekBuckets != null) {
+            out.setWeekBuckets(weekBuckets);
+        }
         return out;
     }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.domain.shift;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * For every shift, the shifts that start less than {@link #getMinimumRestMinutes()} after it ends
+ * and end no earlier than it ends, as a sorted array of {@link Shift#getConflictGraphOrdinal()}s.
+ * That only depends on the shift times, so the rest rule only joins a shift with its right neighbours
+ * by ordinal and checks that both have the same employee.
+ * Built with a sweep line over the shifts sorted by start, and never changed afterwards:
+ * the clones of the roster share it, so a change of the shifts builds a new graph instead.
+ * The ordinal lives on the shift, so the clones of a shift are found in the same graph.
+ * A new graph keeps the ordinals the shifts already have and only assigns one to the new shifts,
+ * because the rest rule indexes the shifts by ordinal.
+ */
+public final class ShiftConflictGraph {
+
+    /**
+     * The rest of the rule "No 2 shifts within 10 hours from each other".
+     */
+    public static final long DEFAULT_MINIMUM_REST_MINUTES = 10L * 60L;
+
+    private final long minimumRestMinutes;
+    private final int shiftCount;
+    // Indexed by ordinal, null for the ordinal of a removed shift
+    private final int[][] rightNeighbourOrdinalsArray;
+    // Indexed by ordinal, boxed once for the DRL from
+    private final List<List<Integer>> rightNeighbourOrdinalListList;
+
+    public ShiftConflictGraph(List<Shift> shiftList, long minimumRestMinutes) {
+        this.minimumRestMinutes = minimumRestMinutes;
+        Shift[] sortedShifts = shiftList.toArray(new Shift[0]);
+        Arrays.sort(sortedShifts, Comparator.comparingLong(Shift::getStartEpochMinute));
+        shiftCount = sortedShifts.length;
+        int nextOrdinal = 0;
+        for (Shift shift : sortedShifts) {
+            nextOrdinal = Math.max(nextOrdinal, shift.getConflictGraphOrdinal() + 1);
+        }
+        BitSet assignedOrdinals = new BitSet(nextOrdinal);
+        long[] startEpochMinutes = new long[sortedShifts.length];
+        long maximumShiftDurationMinutes = 0L;
+        for (int i = 0; i < sortedShifts.length; i++) {
+            Shift shift = sortedShifts[i];
+            int ordinal = shift.getConflictGraphOrdinal();
+            if (ordinal < 0 || assignedOrdinals.get(ordinal)) {
+                ordinal = nextOrdinal++;
+                shift.setConflictGraphOrdinal(ordinal);
+            }
+            assignedOrdinals.set(ordinal);
+            startEpochMinutes[i] = shift.getStartEpochMinute();
+            maximumShiftDurationMinutes = Math.max(maximumShiftDurationMinutes, shift.getDurationMinutes());
+        }
+        rightNeighbourOrdinalsArray = new int[nextOrdinal][];
+        // Sweep line: the right neighbours of a shift start in [end - maximum duration, end + minimum rest)
+        int[] ordinalBuffer = new int[16];
+        for (Shift shift : sortedShifts) {
+            int ordinalCount = 0;
+            long windowEnd = shift.getEndEpochMinute() + minimumRestMinutes;
+            for (int i = lowerBound(startEpochMinutes, shift.getEndEpochMinute() - maximumShiftDurationMinutes);
+                    i < sortedShifts.length && startEpochMinutes[i] < windowEnd; i++) {
+                Shift other = sortedShifts[i];
+                if (isRightNeighbour(shift, other)) {
+                    if (ordinalCount == ordinalBuffer.length) {
+                        ordinalBuffer = Arrays.copyOf(ordinalBuffer, ordinalCount * 2);
+                    }
+                    ordinalBuffer[ordinalCount++] = other.getConflictGraphOrdinal();
+                }
+            }
+            int[] rightNeighbourOrdinals = Arrays.copyOf(ordinalBuffer, ordinalCount);
+            Arrays.sort(rightNeighbourOrdinals);
+            rightNeighbourOrdinalsArray[shift.getConflictGraphOrdinal()] = rightNeighbourOrdinals;
+        }
+        rightNeighbourOrdinalListList = new ArrayList<>(rightNeighbourOrdinalsArray.length);
+        for (int[] rightNeighbourOrdinals : rightNeighbourOrdinalsArray) {
+            if (rightNeighbourOrdinals == null) {
+                rightNeighbourOrdinalListList.add(null);
+                continue;
+            }
+            List<Integer> rightNeighbourOrdinalList = new ArrayList<>(rightNeighbourOrdinals.length);
+            for (int rightNeighbourOrdinal : rightNeighbourOrdinals) {
+                rightNeighbourOrdinalList.add(rightNeighbourOrdinal);
+            }
+            rightNeighbourOrdinalListList.add(Collections.unmodifiableList(rightNeighbourOrdinalList));
+        }
+    }
+
+    private boolean isRightNeighbour(Shift shift, Shift other) {
+        return other.getConflictGraphOrdinal() != shift.getConflictGraphOrdinal()
+                && shift.getEndEpochMinute() <= other.getEndEpochMinute()
+                && other.getStartEpochMinute() - shift.getEndEpochMinute() < minimumRestMinutes;
+    }
+
+    private static int lowerBound(long[] sortedValues, long value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @param shift never null
+     * @param other never null
+     * @return true if other ends no earlier than shift and starts less than the minimum rest after shift ends
+     */
+    public boolean isConflicting(Shift shift, Shift other) {
+        return Arrays.binarySearch(getRightNeighbourOrdinals(shift), other.getConflictGraphOrdinal()) >= 0;
+    }
+
+    /**
+     * @param shift never null
+     * @return {@code >= 0}, the number of shifts for which {@link #isConflicting(Shift, Shift)} is true
+     */
+    public int getConflictCount(Shift shift) {
+        return getRightNeighbourOrdinals(shift).length;
+    }
+
+    /**
+     * Lets the rest rule look up the conflicting shifts by {@link Shift#getConflictGraphOrdinal()}
+     * instead of joining every pair of shifts of an employee.
+     * @param shift never null
+     * @return never null, sorted, the ordinals of the shifts for which {@link #isConflicting(Shift, Shift)} is true
+     */
+    public List<Integer> getRightNeighbourOrdinalList(Shift shift) {
+        return rightNeighbourOrdinalListList.get(getOrdinal(shift));
+    }
+
+    /**
+     * @param shift never null
+     * @return true if the shift, or a clone of it, is in this graph
+     */
+    public boolean contains(Shift shift) {
+        int ordinal = shift.getConflictGraphOrdinal();
+        return ordinal >= 0 && ordinal < rightNeighbourOrdinalsArray.length
+                && rightNeighbourOrdinalsArray[ordinal] != null;
+    }
+
+    private int[] getRightNeighbourOrdinals(Shift shift) {
+        return rightNeighbourOrdinalsArray[getOrdinal(shift)];
+    }
+
+    private int getOrdinal(Shift shift) {
+        if (!contains(shift)) {
+            throw new IllegalArgumentException("The shift (" + shift + ") is not in the shift conflict graph.");
+        }
+        return shift.getConflictGraphOrdinal();
+    }
+
+    public long getMinimumRestMinutes() {
+        return minimumRestMinutes;
+    }
+
+    public int size() {
+        return shiftCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ShiftConflictGraph (" + shiftCount + " shifts)";
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.domain.skill;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.spot.Spot;
+
+/**
+ * Gives every {@link Skill} of a tenant a dense ordinal,
+ * so a set of skills is a {@code long[]} with 1 bit per skill
+ * and checking if an employee has all the required skills of a spot is an AND per 64 skills
+ * instead of {@link java.util.Set#containsAll(Collection)}.
+ */
+public final class SkillIndex {
+
+    private final Map<Skill, Integer> skillToOrdinalMap;
+    private final int wordCount;
+
+    public SkillIndex(List<Skill> skillList) {
+        skillToOrdinalMap = new HashMap<>(skillList.size() * 2);
+        for (Skill skill : skillList) {
+            skillToOrdinalMap.putIfAbsent(skill, skillToOrdinalMap.size());
+        }
+        wordCount = (skillToOrdinalMap.size() + 63) >>> 6;
+    }
+
+    public static SkillIndex of(Roster roster) {
+        return new SkillIndex(roster.getSkillList());
+    }
+
+    /**
+     * @param skill never null
+     * @return {@code 0 <= ordinal < size()}
+     */
+    public int getOrdinal(Skill skill) {
+        Integer ordinal = skillToOrdinalMap.get(skill);
+        if (ordinal == null) {
+            throw new IllegalArgumentException("The skill (" + skill + ") with id (" + skill.getId()
+                                                       + ") is not in the skill index.");
+        }
+        return ordinal;
+    }
+
+    /**
+     * @param skills never null
+     * @return never null, bit {@code getOrdinal(skill)} is set for every skill
+     */
+    public long[] toBits(Collection<Skill> skills) {
+        long[] bits = new long[wordCount];
+        for (Skill skill : skills) {
+            int ordinal = getOrdinal(skill);
+            bits[ordinal >>> 6] |= 1L << ordinal;
+        }
+        return bits;
+    }
+
+    /**
+     * @param bits never null
+     * @param requiredBits never null, of the same {@link SkillIndex}
+     * @return true if every bit of requiredBits is also set in bits
+     */
+    public static boolean containsAll(long[] bits, long[] requiredBits) {
+        for (int i = 0; i < requiredBits.length; i++) {
+            if ((requiredBits[i] & ~bits[i]) != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void assignSkillBits(Collection<Employee> employees, Collection<Spot> spots) {
+        for (Employee employee : employees) {
+            employee.setSkillProficiencyBits(toBits(employee.getSkillProficiencySet()));
+        }
+        for (Spot spot : spots) {
+            spot.setRequiredSkillBits(toBits(spot.getRequiredSkillSet()));
+        }
+    }
+
+    public void assignSkillBits(Roster roster) {
+        assignSkillBits(roster.getEmployeeList(), roster.getSpotList());
+    }
+
+    public int size() {
+        return skillToOrdinalMap.size();
+    }
+}
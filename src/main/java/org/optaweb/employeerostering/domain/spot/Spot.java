@@ -16,13 +16,16 @@
 
 package org.optaweb.employeerostering.domain.spot;
 
+import java.util.List;
 import java.util.Set;
 
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.optaweb.employeerostering.domain.common.AbstractPersistable;
+import org.optaweb.employeerostering.domain.employee.Employee;
 import org.optaweb.employeerostering.domain.skill.Skill;
 
 public class Spot extends AbstractPersistable {
@@ -35,6 +38,11 @@ public class Spot extends AbstractPersistable {
     @NotNull
     private Set<Skill> requiredSkillSet;
 
+    // Mirror of requiredSkillSet assigned by SkillIndex, null until then or after the set is replaced
+    private long[] requiredSkillBits = null;
+    // Owned by the EmployeeSpotEligibility of the roster, the value range of the shifts of this spot
+    private List<Employee> eligibleEmployeeList = null;
+
     @SuppressWarnings("unused")
     public Spot() {
     }
@@ -45,6 +53,18 @@ public class Spot extends AbstractPersistable {
         this.requiredSkillSet = requiredSkillSet;
     }
 
+    /**
+     * A copy with the same id and without an eligible employee list,
+     * which a problem fact change gives a new one instead of the spot that the best solution shares.
+     * @param other never null
+     */
+    public Spot(Spot other) {
+        super(other);
+        this.name = other.name;
+        this.requiredSkillSet = other.requiredSkillSet;
+        this.requiredSkillBits = other.requiredSkillBits;
+    }
+
     @Override
     public String toString() {
         return name;
@@ -68,5 +88,24 @@ public class Spot extends AbstractPersistable {
 
     public void setRequiredSkillSet(Set<Skill> requiredSkillSet) {
         this.requiredSkillSet = requiredSkillSet;
+        this.requiredSkillBits = null;
+    }
+
+    @JsonIgnore
+    public long[] getRequiredSkillBits() {
+        return requiredSkillBits;
+    }
+
+    public void setRequiredSkillBits(long[] requiredSkillBits) {
+        this.requiredSkillBits = requiredSkillBits;
+    }
+
+    @JsonIgnore
+    public List<Employee> getEligibleEmployeeList() {
+        return eligibleEmployeeList;
+    }
+
+    public void setEligibleEmployeeList(List<Employee> eligibleEmployeeList) {
+        this.eligibleEmployeeList = eligibleEmployeeList;
     }
 }
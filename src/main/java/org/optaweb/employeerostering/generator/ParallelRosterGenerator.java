@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.generator;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailability;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailabilityState;
+import org.optaweb.employeerostering.domain.roster.RosterState;
+import org.optaweb.employeerostering.domain.rotation.ShiftTemplate;
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.domain.spot.Spot;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Creates the shifts per (day, spot) and the employee availabilities per day in a {@link ForkJoinPool}.
+ * Every (day, spot) and every day has its own {@link SplittableRandom}, seeded from the roster seed and its indexes,
+ * so the output only depends on the seed, not on the parallelism or the order in which the tasks run.
+ * The ids are not set: the {@link RosterGenerator} sets them afterwards, in list order.
+ */
+class ParallelRosterGenerator {
+
+    private static final long SHIFT_SALT = 0x5348494654L;
+    private static final long AVAILABILITY_SALT = 0x415641494CL;
+
+    private final ForkJoinPool forkJoinPool;
+    private final long seed;
+
+    ParallelRosterGenerator(ForkJoinPool forkJoinPool, long seed) {
+        this.forkJoinPool = forkJoinPool;
+        this.seed = seed;
+    }
+
+    /**
+     * Same shifts as {@link RosterGenerator#createShiftList}, apart from the random extra shifts.
+     */
+    List<Shift> createShiftList(RosterState rosterState, List<Spot> spotList,
+                                List<ShiftTemplate> shiftTemplateList, double[] extraShiftThresholds) {
+        ZoneId zoneId = rosterState.getTimeZone();
+        int rotationLength = rosterState.getRotationLength();
+        LocalDate startDate = rosterState.getLastHistoricDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate firstDraftDate = rosterState.getFirstDraftDate();
+        int dayCount = (int) ChronoUnit.DAYS.between(startDate, rosterState.getFirstUnplannedDate());
+        int spotCount = spotList.size();
+
+        Map<Spot, Integer> spotToIndexMap = new IdentityHashMap<>(spotCount);
+        for (int i = 0; i < spotCount; i++) {
+            spotToIndexMap.put(spotList.get(i), i);
+        }
+        List<List<ShiftTemplate>> dayOffsetAndSpotToShiftTemplateList = new ArrayList<>(rotationLength * spotCount);
+        for (int i = 0; i < rotationLength * spotCount; i++) {
+            dayOffsetAndSpotToShiftTemplateList.add(new ArrayList<>());
+        }
+        for (ShiftTemplate shiftTemplate : shiftTemplateList) {
+            int cellIndex = shiftTemplate.getStartDayOffset() * spotCount
+                    + spotToIndexMap.get(shiftTemplate.getSpot());
+            dayOffsetAndSpotToShiftTemplateList.get(cellIndex).add(shiftTemplate);
+        }
+
+        List<List<Shift>> cellShiftListList = invoke(() -> IntStream.range(0, dayCount * spotCount).parallel()
+                .mapToObj(cellIndex -> {
+                    int dayIndex = cellIndex / spotCount;
+                    int spotIndex = cellIndex % spotCount;
+                    LocalDate date = startDate.plusDays(dayIndex);
+                    List<ShiftTemplate> subShiftTemplateList = dayOffsetAndSpotToShiftTemplateList
+                            .get((dayIndex % rotationLength) * spotCount + spotIndex);
+                    if (subShiftTemplateList.isEmpty()) {
+                        return Collections.<Shift>emptyList();
+                    }
+                    List<Shift> cellShiftList = new ArrayList<>(subShiftTemplateList.size() + 1);
+                    boolean defaultToRotationEmployee = date.compareTo(firstDraftDate) < 0;
+                    for (ShiftTemplate shiftTemplate : subShiftTemplateList) {
+                        cellShiftList.add(shiftTemplate.createShiftOnDate(date, rotationLength, zoneId,
+                                                                          defaultToRotationEmployee));
+                    }
+                    if (!defaultToRotationEmployee) {
+                        SplittableRandom random = new SplittableRandom(
+                                mixSeed(seed ^ SHIFT_SALT, dayIndex, spotIndex));
+                        int extraShiftCount = RosterGenerator.selectThresholdIndex(random.nextDouble(),
+                                                                                   extraShiftThresholds);
+                        for (int i = 0; i < extraShiftCount; i++) {
+                            ShiftTemplate shiftTemplate = subShiftTemplateList.get(
+                                    random.nextInt(subShiftTemplateList.size()));
+                            cellShiftList.add(shiftTemplate.createShiftOnDate(date, rotationLength, zoneId, false));
+                        }
+                    }
+                    return cellShiftList;
+                }).collect(toList()));
+        rosterState.setUnplannedRotationOffset(dayCount % rotationLength);
+
+        List<Shift> shiftList = new ArrayList<>(cellShiftListList.stream().mapToInt(List::size).sum());
+        cellShiftListList.forEach(shiftList::addAll);
+        return shiftList;
+    }
+
+    /**
+     * Same distribution as {@link RosterGenerator#createEmployeeAvailabilityList},
+     * but samples the employees of a day without replacement in O(1) per sample,
+     * instead of removing them from a copy of the employee list.
+     */
+    List<EmployeeAvailability> createEmployeeAvailabilityList(Integer tenantId, RosterState rosterState,
+                                                              List<Employee> employeeList, List<Shift> shiftList) {
+        ZoneId zoneId = rosterState.getTimeZone();
+        LocalDate startDate = rosterState.getFirstDraftDate().plusDays(1);
+        int dayCount = (int) ChronoUnit.DAYS.between(startDate, rosterState.getFirstUnplannedDate());
+        if (dayCount <= 0) {
+            return new ArrayList<>();
+        }
+        int[] dayShiftCounts = new int[dayCount];
+        for (Shift shift : shiftList) {
+            long dayIndex = ChronoUnit.DAYS.between(startDate, shift.getStartDateTime().toLocalDate());
+            if (dayIndex >= 0L && dayIndex < dayCount) {
+                dayShiftCounts[(int) dayIndex]++;
+            }
+        }
+        EmployeeAvailabilityState[] states = EmployeeAvailabilityState.values();
+        int employeeCount = employeeList.size();
+
+        List<List<EmployeeAvailability>> dayAvailabilityListList = invoke(() -> IntStream.range(0, dayCount).parallel()
+                .mapToObj(dayIndex -> {
+                    int stateCount = (employeeCount - dayShiftCounts[dayIndex]) / 4;
+                    if (stateCount <= 0) {
+                        // Heavy overconstrained planning (more shifts than employees)
+                        stateCount = 1;
+                    }
+                    LocalDate date = startDate.plusDays(dayIndex);
+                    LocalDateTime startDateTime = date.atTime(LocalTime.MIN);
+                    LocalDateTime endDateTime = date.plusDays(1).atTime(LocalTime.MIN);
+                    OffsetDateTime startOffsetDateTime = OffsetDateTime.of(startDateTime,
+                                                                           zoneId.getRules().getOffset(startDateTime));
+                    OffsetDateTime endOffsetDateTime = OffsetDateTime.of(endDateTime,
+                                                                         zoneId.getRules().getOffset(endDateTime));
+                    SplittableRandom random = new SplittableRandom(mixSeed(seed ^ AVAILABILITY_SALT, dayIndex, 0));
+                    EmployeeSampler employeeSampler = new EmployeeSampler(employeeList);
+                    int sampleCount = Math.min(stateCount * states.length, employeeCount);
+                    List<EmployeeAvailability> dayAvailabilityList = new ArrayList<>(sampleCount);
+                    for (int i = 0; i < sampleCount; i++) {
+                        EmployeeAvailability employeeAvailability = new EmployeeAvailability(
+                                tenantId, employeeSampler.next(random), startOffsetDateTime, endOffsetDateTime);
+                        employeeAvailability.setState(states[i / stateCount]);
+                        dayAvailabilityList.add(employeeAvailability);
+                    }
+                    return dayAvailabilityList;
+                }).collect(toList()));
+
+        List<EmployeeAvailability> employeeAvailabilityList = new ArrayList<>(
+                dayAvailabilityListList.stream().mapToInt(List::size).sum());
+        dayAvailabilityListList.forEach(employeeAvailabilityList::addAll);
+        return employeeAvailabilityList;
+    }
+
+    private <T> T invoke(Callable<T> task) {
+        try {
+            // A parallel stream started from inside a ForkJoinPool runs in that pool
+            return forkJoinPool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The roster generation was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The parallel roster generation failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Mixes the indexes into the seed with the finalizer of SplitMix64, so neighbouring cells get unrelated streams.
+     */
+    static long mixSeed(long seed, int dayIndex, int spotIndex) {
+        long z = seed + 0x9E3779B97F4A7C15L * (((long) dayIndex << 32) | (spotIndex & 0xFFFFFFFFL)) + 1L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * A partial Fisher-Yates shuffle of the employee indexes that only remembers the swapped positions,
+     * so drawing k employees out of n takes O(k) time and memory instead of O(n).
+     */
+    private static final class EmployeeSampler {
+
+        private final List<Employee> employeeList;
+        private final Map<Integer, Integer> swappedIndexMap = new HashMap<>();
+        private int remainingSize;
+
+        private EmployeeSampler(List<Employee> employeeList) {
+            this.employeeList = employeeList;
+            this.remainingSize = employeeList.size();
+        }
+
+        private Employee next(SplittableRandom random) {
+            int i = random.nextInt(remainingSize);
+            int last = remainingSize - 1;
+            int selectedIndex = swappedIndexMap.getOrDefault(i, i);
+            swappedIndexMap.put(i, swappedIndexMap.getOrDefault(last, last));
+            remainingSize--;
+            return employeeList.get(selectedIndex);
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.temporal.TemporalAdjusters;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -39,6 +40,7 @@ import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
 import org.optaweb.employeerostering.domain.common.AbstractPersistable;
+import org.optaweb.employeerostering.domain.common.WeekBuckets;
 import org.optaweb.employeerostering.domain.contract.Contract;
 import org.optaweb.employeerostering.domain.employee.Employee;
 import org.optaweb.employeerostering.domain.employee.EmployeeAvailability;
@@ -48,6 +50,7 @@ import org.optaweb.employeerostering.domain.roster.RosterState;
 import org.optaweb.employeerostering.domain.rotation.ShiftTemplate;
 import org.optaweb.employeerostering.domain.shift.Shift;
 import org.optaweb.employeerostering.domain.skill.Skill;
+import org.optaweb.employeerostering.domain.skill.SkillIndex;
 import org.optaweb.employeerostering.domain.spot.Spot;
 import org.optaweb.employeerostering.domain.tenant.RosterParametrization;
 import org.optaweb.employeerostering.domain.tenant.Tenant;
@@ -58,6 +61,8 @@ import static java.util.stream.Collectors.toList;
 public class RosterGenerator {
 
     private static final double[] EXTRA_SHIFT_THRESHOLDS = {0.5, 0.8, 0.95};
+    // The shifts span from the week of the last historic date up to the end of the draft
+    private static final int DEFAULT_DRAFT_LENGTH = 14;
 
     public static class GeneratorType {
 
@@ -386,37 +391,101 @@ public class RosterGenerator {
       p.setId(idGenerator.getAndIncrement());
     }
 
+    /**
+     * Resets this generator first: its random to {@link RosterGeneratorConfig#getSeed()}, its ids and its names,
+     * so the same config generates the same roster, whatever this generator generated before,
+     * apart from the dates, which start from the current date.
+     * @param config never null
+     * @return never null
+     */
+    public Roster generateRoster(RosterGeneratorConfig config) {
+        reset(config.getSeed());
+        GeneratorType generatorType = getGeneratorType(config.getGeneratorTypePreset());
+        if (config.getParallelism() <= 1) {
+            return generateRoster(config, generatorType, null);
+        }
+        ForkJoinPool forkJoinPool = new ForkJoinPool(config.getParallelism());
+        try {
+            return generateRoster(config, generatorType,
+                                  new ParallelRosterGenerator(forkJoinPool, config.getSeed()));
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    private void reset(long seed) {
+        random.setSeed(seed);
+        idGenerator.set(0L);
+        // The other name generators are reset whenever they are used
+        tenantNameGenerator.reset();
+    }
+
     public Roster generateRoster(int spotListSize,
                                  int lengthInDays,
                                  int workDaysPerWeek,
                                  RosterGenerator.GeneratorType generatorType,
                                  ZoneId zoneId) {
+        // The lengthInDays is ignored: the shifts span the publish and draft period of the roster state
+        RosterGeneratorConfig config = RosterGeneratorConfig.builder()
+                .withSpotListSize(spotListSize)
+                .withWorkDaysPerWeek(workDaysPerWeek)
+                .withZoneId(zoneId)
+                .build();
+        return generateRoster(config, generatorType, null);
+    }
+
+    /**
+     * @param parallelRosterGenerator null to generate everything in the calling thread
+     */
+    private Roster generateRoster(RosterGeneratorConfig config, GeneratorType generatorType,
+                                  ParallelRosterGenerator parallelRosterGenerator) {
+        int spotListSize = config.getSpotListSize();
+        int workDaysPerWeek = config.getWorkDaysPerWeek();
+        ZoneId zoneId = config.getZoneId();
         int maxShiftSizePerDay = generatorType.timeslotRangeList.size() + EXTRA_SHIFT_THRESHOLDS.length;
         // The average employee works 5 days out of 7
         int employeeListSize = spotListSize * maxShiftSizePerDay * 7 / workDaysPerWeek;
+        if (config.getEmployeeMultiplier() != 1.0) {
+            employeeListSize = Math.max(1, (int) Math.round(employeeListSize * config.getEmployeeMultiplier()));
+        }
         int skillListSize = (spotListSize + 4) / workDaysPerWeek;
 
         Tenant tenant = createTenant(generatorType, employeeListSize);
         Integer tenantId = tenant.getId();
         RosterParametrization rosterParametrization = createTenantConfiguration(generatorType,
                                                                                 tenantId, zoneId);
-        RosterState rosterState = createRosterState(generatorType, tenant, zoneId, lengthInDays);
+        RosterState rosterState = createRosterStateWithDraftLength(generatorType, tenant, zoneId,
+                                                                   config.getDraftLengthInDays());
 
         List<Skill> skillList = createSkillList(generatorType, tenantId, skillListSize);
         List<Spot> spotList = createSpotList(generatorType, tenantId, spotListSize, skillList);
         List<Contract> contractList = createContractList(tenantId);
         List<Employee> employeeList = createEmployeeList(generatorType, tenantId, employeeListSize,
                                                          contractList, skillList);
+        new SkillIndex(skillList).assignSkillBits(employeeList, spotList);
         List<ShiftTemplate> shiftTemplateList = createShiftTemplateList(generatorType, tenantId,
                                                                         rosterState, spotList,
                                                                         employeeList);
-        List<Shift> shiftList = createShiftList(generatorType, tenantId, rosterParametrization,
-                                                rosterState, spotList, shiftTemplateList);
-        List<EmployeeAvailability> employeeAvailabilityList = createEmployeeAvailabilityList(
-                generatorType, tenantId, rosterParametrization, rosterState, employeeList, shiftList);
+        List<Shift> shiftList;
+        List<EmployeeAvailability> employeeAvailabilityList;
+        if (parallelRosterGenerator == null) {
+            shiftList = createShiftList(generatorType, tenantId, rosterParametrization,
+                                        rosterState, spotList, shiftTemplateList);
+            employeeAvailabilityList = createEmployeeAvailabilityList(
+                    generatorType, tenantId, rosterParametrization, rosterState, employeeList, shiftList);
+        } else {
+            shiftList = parallelRosterGenerator.createShiftList(rosterState, spotList, shiftTemplateList,
+                                                                EXTRA_SHIFT_THRESHOLDS);
+            shiftList.forEach(this::setId);
+            employeeAvailabilityList = parallelRosterGenerator.createEmployeeAvailabilityList(
+                    tenantId, rosterState, employeeList, shiftList);
+            employeeAvailabilityList.forEach(this::setId);
+        }
 
-        return new Roster((long) tenantId, tenantId, skillList, spotList, employeeList, employeeAvailabilityList,
-                          rosterParametrization, rosterState, shiftList);
+        Roster roster = new Roster((long) tenantId, tenantId, skillList, spotList, employeeList,
+                                   employeeAvailabilityList, rosterParametrization, rosterState, shiftList);
+        WeekBuckets.of(roster).assignWeekBuckets(roster);
+        return roster;
     }
 
     public Roster generateRoster(int spotListSize, int lengthInDays, int workDaysPerWeek) {
@@ -424,6 +493,23 @@ public class RosterGenerator {
         return generateRoster(spotListSize, lengthInDays, workDaysPerWeek, factoryAssemblyGeneratorType, zoneId);
     }
 
+    public GeneratorType getGeneratorType(GeneratorTypePreset generatorTypePreset) {
+        switch (generatorTypePreset) {
+            case HOSPITAL:
+                return hospitalGeneratorType;
+            case FACTORY_ASSEMBLY:
+                return factoryAssemblyGeneratorType;
+            case GUARD_SECURITY:
+                return guardSecurityGeneratorType;
+            case CALL_CENTER:
+                return callCenterGeneratorType;
+            case POST_OFFICE:
+                return postOfficeGeneratorType;
+            default:
+                throw new IllegalArgumentException("Unsupported generatorTypePreset (" + generatorTypePreset + ").");
+        }
+    }
+
     public Tenant createTenant(GeneratorType generatorType, int employeeListSize) {
         String tenantName = generatorType.tenantNamePrefix + " " + tenantNameGenerator.generateNextValue() + " ("
                 + employeeListSize + " employees)";
@@ -441,6 +527,11 @@ public class RosterGenerator {
     }
 
     public RosterState createRosterState(GeneratorType generatorType, Tenant tenant, ZoneId zoneId, int lengthInDays) {
+        return createRosterStateWithDraftLength(generatorType, tenant, zoneId, DEFAULT_DRAFT_LENGTH);
+    }
+
+    private RosterState createRosterStateWithDraftLength(GeneratorType generatorType, Tenant tenant, ZoneId zoneId,
+                                                         int draftLength) {
         RosterState rosterState = new RosterState();
         rosterState.setTenantId(tenant.getId());
         int publishNotice = 14;
@@ -451,7 +542,7 @@ public class RosterGenerator {
         rosterState.setFirstDraftDate(firstDraftDate);
         // publishLength is read-only and set to 7 days
         //rosterState.setPublishLength(7);
-        rosterState.setDraftLength(14);
+        rosterState.setDraftLength(draftLength);
         rosterState.setUnplannedRotationOffset(0);
         rosterState.setRotationLength(generatorType.rotationLength);
         rosterState.setLastHistoricDate(LocalDate.now().minusDays(1));
@@ -534,7 +625,7 @@ public class RosterGenerator {
                 .collect(Collectors.toCollection(ArrayList::new));
         for (Spot spot : spotList) {
             List<Employee> rotationEmployeeList = remainingEmployeeList.stream()
-                    .filter(employee -> employee.getSkillProficiencySet().containsAll(spot.getRequiredSkillSet()))
+                    .filter(employee -> employee.hasRequiredSkills(spot))
                     .limit(generatorType.rotationEmployeeListSize).collect(toList());
             remainingEmployeeList.removeAll(rotationEmployeeList);
             // For every day in the rotation (independent of publishLength and draftLength)
@@ -691,7 +782,10 @@ public class RosterGenerator {
     }
 
     private int generateRandomIntFromThresholds(double... thresholds) {
-        double randomDouble = random.nextDouble();
+        return selectThresholdIndex(random.nextDouble(), thresholds);
+    }
+
+    static int selectThresholdIndex(double randomDouble, double... thresholds) {
         for (int i = 0; i < thresholds.length; i++) {
             if (randomDouble < thresholds[i]) {
                 return i;
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.generator;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * The input of {@link RosterGenerator#generateRoster(RosterGeneratorConfig)}.
+ * The defaults of {@link #builder()} generate the roster of the reproducer.
+ * The same config always generates the same roster.
+ */
+public final class RosterGeneratorConfig {
+
+    private final long seed;
+    private final ZoneId zoneId;
+    private final GeneratorTypePreset generatorTypePreset;
+    private final int spotListSize;
+    private final int draftLengthInDays;
+    private final int workDaysPerWeek;
+    private final double employeeMultiplier;
+    private final int parallelism;
+
+    private RosterGeneratorConfig(Builder builder) {
+        this.seed = builder.seed;
+        this.zoneId = builder.zoneId;
+        this.generatorTypePreset = builder.generatorTypePreset;
+        this.spotListSize = builder.spotListSize;
+        this.draftLengthInDays = builder.draftLengthInDays;
+        this.workDaysPerWeek = builder.workDaysPerWeek;
+        this.employeeMultiplier = builder.employeeMultiplier;
+        this.parallelism = builder.parallelism;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return generatorTypePreset + " roster with " + spotListSize + " spots and a draft of " + draftLengthInDays
+                + " days (seed " + seed + ", " + zoneId + ", " + workDaysPerWeek
+                + " work days per week, employee multiplier " + employeeMultiplier + ")";
+    }
+
+    // ************************************************************************
+    // Simple getters
+    // ************************************************************************
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public ZoneId getZoneId() {
+        return zoneId;
+    }
+
+    public GeneratorTypePreset getGeneratorTypePreset() {
+        return generatorTypePreset;
+    }
+
+    public int getSpotListSize() {
+        return spotListSize;
+    }
+
+    public int getDraftLengthInDays() {
+        return draftLengthInDays;
+    }
+
+    public int getWorkDaysPerWeek() {
+        return workDaysPerWeek;
+    }
+
+    public double getEmployeeMultiplier() {
+        return employeeMultiplier;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public static final class Builder {
+
+        private long seed = 0L;
+        private ZoneId zoneId = ZoneOffset.UTC;
+        private GeneratorTypePreset generatorTypePreset = GeneratorTypePreset.FACTORY_ASSEMBLY;
+        private int spotListSize = 100;
+        private int draftLengthInDays = 14;
+        private int workDaysPerWeek = 100;
+        private double employeeMultiplier = 1.0;
+        private int parallelism = 1;
+
+        private Builder() {
+        }
+
+        public Builder withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder withZoneId(ZoneId zoneId) {
+            this.zoneId = zoneId;
+            return this;
+        }
+
+        public Builder withGeneratorTypePreset(GeneratorTypePreset generatorTypePreset) {
+            this.generatorTypePreset = generatorTypePreset;
+            return this;
+        }
+
+        public Builder withSpotListSize(int spotListSize) {
+            this.spotListSize = spotListSize;
+            return this;
+        }
+
+        /**
+         * @param draftLengthInDays {@code > 0}, the shifts span about 3 weeks more than the draft
+         * @return this
+         */
+        public Builder withDraftLengthInDays(int draftLengthInDays) {
+            this.draftLengthInDays = draftLengthInDays;
+            return this;
+        }
+
+        /**
+         * @param workDaysPerWeek {@code > 0}, the lower, the more employees
+         * @return this
+         */
+        public Builder withWorkDaysPerWeek(int workDaysPerWeek) {
+            this.workDaysPerWeek = workDaysPerWeek;
+            return this;
+        }
+
+        /**
+         * @param employeeMultiplier {@code > 0.0}, multiplies the number of employees derived from the spots
+         * @return this
+         */
+        public Builder withEmployeeMultiplier(double employeeMultiplier) {
+            this.employeeMultiplier = employeeMultiplier;
+            return this;
+        }
+
+        /**
+         * A parallelism above 1 generates the shifts and employee availabilities
+         * in a {@link java.util.concurrent.ForkJoinPool} of that many threads.
+         * Their random parts differ from the sequential generation, but are the same for every parallelism above 1.
+         * @param parallelism {@code > 0}, defaults to 1
+         * @return this
+         */
+        public Builder withParallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public RosterGeneratorConfig build() {
+            if (zoneId == null || generatorTypePreset == null) {
+                throw new IllegalStateException("The zoneId (" + zoneId + ") and the generatorTypePreset ("
+                                                        + generatorTypePreset + ") must not be null.");
+            }
+            if (spotListSize <= 0 || draftLengthInDays <= 0 || workDaysPerWeek <= 0 || employeeMultiplier <= 0.0
+                    || parallelism <= 0) {
+                throw new IllegalStateException("The spotListSize (" + spotListSize + "), draftLengthInDays ("
+                                                        + draftLengthInDays + "), workDaysPerWeek (" + workDaysPerWeek
+                                                        + "), employeeMultiplier (" + employeeMultiplier
+                                                        + ") and parallelism (" + parallelism
+                                                        + ") must be positive.");
+            }
+            return new RosterGeneratorConfig(this);
+        }
+    }
+}
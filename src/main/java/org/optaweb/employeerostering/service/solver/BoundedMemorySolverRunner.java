@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Solves a {@link Roster} under a {@link HeapPressureWatchdog}.
+ * When the watchdog detects memory pressure, the solver is terminated early and the solve is restarted
+ * from the best solution so far, with Drools JIT disabled and only for the remaining time,
+ * so the run degrades gracefully instead of dying with an {@link OutOfMemoryError}.
+ */
+public class BoundedMemorySolverRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedMemorySolverRunner.class);
+
+    // Same property as the -Ddrools.jittingThreshold system property
+    private static final String JITTING_THRESHOLD_PROPERTY = "drools.jittingThreshold";
+
+    private final SolverFactory<Roster> solverFactory;
+    private final List<SolverEventListener<Roster>> solverEventListenerList = new ArrayList<>();
+
+    private double maximumHeapOccupancy = 0.85;
+    private long maximumLoadedClassGrowth = 20_000L;
+    private long pollingMillis = 1000L;
+    private int maximumRestartCount = 3;
+
+    public BoundedMemorySolverRunner(SolverFactory<Roster> solverFactory) {
+        this.solverFactory = solverFactory;
+    }
+
+    /**
+     * @param solverEventListener never null, added to the solver of every restart
+     */
+    public void addEventListener(SolverEventListener<Roster> solverEventListener) {
+        solverEventListenerList.add(solverEventListener);
+    }
+
+    public Roster solve(Roster problem) {
+        long startingMillis = System.currentTimeMillis();
+        SolverFactory<Roster> currentSolverFactory = solverFactory;
+        Roster bestSolution = problem;
+        for (int restartCount = 0; ; restartCount++) {
+            Solver<Roster> solver = currentSolverFactory.buildSolver();
+            solverEventListenerList.forEach(solver::addEventListener);
+            String pressureReason;
+            try (HeapPressureWatchdog watchdog = new HeapPressureWatchdog(maximumHeapOccupancy,
+                                                                          maximumLoadedClassGrowth,
+                                                                          pollingMillis)) {
+                watchdog.start(reason -> solver.terminateEarly());
+                bestSolution = solver.solve(bestSolution);
+                pressureReason = watchdog.getPressureReason();
+            }
+            if (pressureReason == null) {
+                return bestSolution;
+            }
+            if (restartCount >= maximumRestartCount) {
+                logger.warn("Returning the best solution with score ({}) after {} restarts.",
+                            bestSolution.getScore(), restartCount);
+                return bestSolution;
+            }
+            Long remainingSeconds = calculateRemainingSeconds(startingMillis);
+            if (remainingSeconds != null && remainingSeconds <= 0L) {
+                return bestSolution;
+            }
+            logger.info("Restarting from the best solution with score ({}) without Drools JIT for {} seconds.",
+                        bestSolution.getScore(), remainingSeconds == null ? "the configured" : remainingSeconds);
+            currentSolverFactory = buildRestartSolverFactory(remainingSeconds);
+            // Free the working memory of the terminated solver, else the next watchdog sees its garbage
+            System.gc();
+        }
+    }
+
+    /**
+     * @return null if the termination has no seconds spent limit
+     */
+    private Long calculateRemainingSeconds(long startingMillis) {
+        TerminationConfig terminationConfig = solverFactory.getSolverConfig().getTerminationConfig();
+        if (terminationConfig == null || terminationConfig.getSecondsSpentLimit() == null) {
+            return null;
+        }
+        long spentSeconds = (System.currentTimeMillis() - startingMillis) / 1000L;
+        return terminationConfig.getSecondsSpentLimit() - spentSeconds;
+    }
+
+    private SolverFactory<Roster> buildRestartSolverFactory(Long remainingSeconds) {
+        SolverFactory<Roster> restartSolverFactory = solverFactory.cloneSolverFactory();
+        ScoreDirectorFactoryConfig scoreDirectorFactoryConfig = restartSolverFactory.getSolverConfig()
+                .getScoreDirectorFactoryConfig();
+        Map<String, String> kieBaseConfigurationProperties = new HashMap<>();
+        if (scoreDirectorFactoryConfig.getKieBaseConfigurationProperties() != null) {
+            kieBaseConfigurationProperties.putAll(scoreDirectorFactoryConfig.getKieBaseConfigurationProperties());
+        }
+        // A negative threshold keeps every constraint interpreted
+        kieBaseConfigurationProperties.put(JITTING_THRESHOLD_PROPERTY, "-1");
+        scoreDirectorFactoryConfig.setKieBaseConfigurationProperties(kieBaseConfigurationProperties);
+        if (remainingSeconds != null) {
+            restartSolverFactory.getSolverConfig().getTerminationConfig().setSecondsSpentLimit(remainingSeconds);
+        }
+        return restartSolverFactory;
+    }
+
+    // ************************************************************************
+    // Simple getters and setters
+    // ************************************************************************
+
+    public double getMaximumHeapOccupancy() {
+        return maximumHeapOccupancy;
+    }
+
+    public void setMaximumHeapOccupancy(double maximumHeapOccupancy) {
+        this.maximumHeapOccupancy = maximumHeapOccupancy;
+    }
+
+    public long getMaximumLoadedClassGrowth() {
+        return maximumLoadedClassGrowth;
+    }
+
+    public void setMaximumLoadedClassGrowth(long maximumLoadedClassGrowth) {
+        this.maximumLoadedClassGrowth = maximumLoadedClassGrowth;
+    }
+
+    public long getPollingMillis() {
+        return pollingMillis;
+    }
+
+    public void setPollingMillis(long pollingMillis) {
+        this.pollingMillis = pollingMillis;
+    }
+
+    public int getMaximumRestartCount() {
+        return maximumRestartCount;
+    }
+
+    public void setMaximumRestartCount(int maximumRestartCount) {
+        this.maximumRestartCount = maximumRestartCount;
+    }
+}
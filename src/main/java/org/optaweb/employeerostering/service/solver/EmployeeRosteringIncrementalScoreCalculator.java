@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.optaplanner.core.api.score.Score;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.core.impl.score.director.incremental.IncrementalScoreCalculator;
+import org.optaweb.employeerostering.domain.contract.EmployeePeriodMinutes;
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailability;
+import org.optaweb.employeerostering.domain.roster.EmployeeSpotEligibility;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.domain.shift.ShiftConflictGraph;
+import org.optaweb.employeerostering.domain.violation.ContractMinutesViolation;
+
+/**
+ * Java alternative to employeeRosteringScoreRules.drl: no rule network and no JIT-compiled constraint classes.
+ * It must produce exactly the same score as the DRL, so any change to a rule must be mirrored here.
+ */
+public class EmployeeRosteringIncrementalScoreCalculator implements IncrementalScoreCalculator<Roster> {
+
+    private static final long MINIMUM_REST_MINUTES = ShiftConflictGraph.DEFAULT_MINIMUM_REST_MINUTES;
+    private static final long REQUIRED_SKILL_PENALTY = 100L;
+    private static final long UNAVAILABLE_PENALTY = 50L;
+    private static final ContractMinutesViolation.Type[] PERIOD_TYPES = ContractMinutesViolation.Type.values();
+
+    private EmployeeSpotEligibility employeeSpotEligibility;
+    private Roster roster; // Its employee availability index is replaced by a RosterChangeBatch
+    private long desiredTimeSlotWeight;
+    private long undesiredTimeSlotWeight;
+    private Map<Employee, EmployeeShiftTimeline> employeeToShiftTimelineMap;
+    // Per period type, a counter per employee and bucket, so a change only touches the buckets of its shift
+    private Map<ContractMinutesViolation.Type, Map<Employee, Map<Integer, MinutesBucket>>> typeToEmployeeBucketMap;
+
+    private long hardScore;
+    private long softScore;
+
+    @Override
+    public void resetWorkingSolution(Roster roster) {
+        int employeeListSize = roster.getEmployeeList().size();
+        employeeSpotEligibility = roster.getEmployeeSpotEligibility();
+        this.roster = roster;
+        desiredTimeSlotWeight = roster.getRosterParametrization().getDesiredTimeSlotWeight();
+        undesiredTimeSlotWeight = roster.getRosterParametrization().getUndesiredTimeSlotWeight();
+        employeeToShiftTimelineMap = new IdentityHashMap<>(employeeListSize);
+        typeToEmployeeBucketMap = new EnumMap<>(ContractMinutesViolation.Type.class);
+        for (ContractMinutesViolation.Type type : PERIOD_TYPES) {
+            typeToEmployeeBucketMap.put(type, new IdentityHashMap<>(employeeListSize));
+        }
+        hardScore = 0L;
+        softScore = 0L;
+        for (EmployeePeriodMinutes employeePeriodMinutes : roster.getEmployeePeriodMinutesList()) {
+            insertCarryOver(employeePeriodMinutes);
+        }
+        for (Shift shift : roster.getShiftList()) {
+            insert(shift);
+        }
+    }
+
+    private void insertCarryOver(EmployeePeriodMinutes employeePeriodMinutes) {
+        Employee employee = employeePeriodMinutes.getEmployee();
+        ContractMinutesViolation.Type type = employeePeriodMinutes.getType();
+        Integer maximumMinutes = employee.getContract().getMaximumMinutes(type);
+        if (maximumMinutes == null) {
+            return;
+        }
+        MinutesBucket bucket = typeToEmployeeBucketMap.get(type).computeIfAbsent(employee, e -> new HashMap<>())
+                .computeIfAbsent(employeePeriodMinutes.getBucket(), k -> new MinutesBucket());
+        hardScore += bucket.penalty;
+        bucket.carryOverMinutes += employeePeriodMinutes.getMinutes();
+        bucket.minutes += employeePeriodMinutes.getMinutes();
+        bucket.penalty = bucket.getPenalty(maximumMinutes);
+        hardScore -= bucket.penalty;
+    }
+
+    @Override
+    public void beforeEntityAdded(Object entity) {
+        // Do nothing
+    }
+
+    @Override
+    public void afterEntityAdded(Object entity) {
+        insert((Shift) entity);
+    }
+
+    @Override
+    public void beforeVariableChanged(Object entity, String variableName) {
+        retract((Shift) entity);
+    }
+
+    @Override
+    public void afterVariableChanged(Object entity, String variableName) {
+        insert((Shift) entity);
+    }
+
+    @Override
+    public void beforeEntityRemoved(Object entity) {
+        retract((Shift) entity);
+    }
+
+    @Override
+    public void afterEntityRemoved(Object entity) {
+        // Do nothing
+    }
+
+    private void insert(Shift shift) {
+        Employee employee = shift.getEmployee();
+        if (employee == null) {
+            return;
+        }
+        if (!employeeSpotEligibility.isEligible(employee, shift.getSpot())) {
+            hardScore -= REQUIRED_SKILL_PENALTY;
+        }
+        updateAvailabilities(employee, shift, 1);
+        EmployeeShiftTimeline timeline = employeeToShiftTimelineMap.computeIfAbsent(employee,
+                                                                                    e -> new EmployeeShiftTimeline());
+        hardScore -= timeline.countRestConflicts(shift, MINIMUM_REST_MINUTES);
+        timeline.add(shift);
+        updateMinutesBuckets(employee, shift, 1);
+    }
+
+    private void retract(Shift shift) {
+        Employee employee = shift.getEmployee();
+        if (employee == null) {
+            return;
+        }
+        EmployeeShiftTimeline timeline = employeeToShiftTimelineMap.get(employee);
+        timeline.remove(shift);
+        hardScore += timeline.countRestConflicts(shift, MINIMUM_REST_MINUTES);
+        if (!employeeSpotEligibility.isEligible(employee, shift.getSpot())) {
+            hardScore += REQUIRED_SKILL_PENALTY;
+        }
+        updateAvailabilities(employee, shift, -1);
+        updateMinutesBuckets(employee, shift, -1);
+    }
+
+    private void updateAvailabilities(Employee employee, Shift shift, int countDelta) {
+        for (EmployeeAvailability employeeAvailability
+                : roster.getEmployeeAvailabilityIndex().getOverlappingAvailabilityList(employee, shift)) {
+            switch (employeeAvailability.getState()) {
+                case UNAVAILABLE:
+                    hardScore -= countDelta * UNAVAILABLE_PENALTY;
+                    break;
+                case DESIRED:
+                    softScore += countDelta * desiredTimeSlotWeight;
+                    break;
+                case UNDESIRED:
+                    softScore -= countDelta * undesiredTimeSlotWeight;
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported state (" + employeeAvailability.getState() + ").");
+            }
+        }
+    }
+
+    private void updateMinutesBuckets(Employee employee, Shift shift, int countDelta) {
+        int minutes = shift.getDurationMinutes();
+        for (ContractMinutesViolation.Type type : PERIOD_TYPES) {
+            Integer maximumMinutes = employee.getContract().getMaximumMinutes(type);
+            if (maximumMinutes != null) {
+                updateMinutesBucket(typeToEmployeeBucketMap.get(type), employee, shift.getBucket(type),
+                                    maximumMinutes, countDelta, minutes);
+            }
+        }
+    }
+
+    private void updateMinutesBucket(Map<Employee, Map<Integer, MinutesBucket>> employeeToBucketMap,
+                                     Employee employee, int key, int maximumMinutes, int countDelta, int minutes) {
+        Map<Integer, MinutesBucket> bucketMap = employeeToBucketMap.computeIfAbsent(employee, e -> new HashMap<>());
+        MinutesBucket bucket = bucketMap.computeIfAbsent(key, k -> new MinutesBucket());
+        // The penalty it was counted with, the contract can have changed since
+        hardScore += bucket.penalty;
+        bucket.shiftCount += countDelta;
+        bucket.minutes += countDelta * minutes;
+        bucket.penalty = bucket.getPenalty(maximumMinutes);
+        hardScore -= bucket.penalty;
+        if (bucket.shiftCount == 0 && bucket.carryOverMinutes == 0L) {
+            bucketMap.remove(key);
+        }
+    }
+
+    @Override
+    public Score calculateScore() {
+        return HardMediumSoftLongScore.of(hardScore, 0L, softScore);
+    }
+
+    private static class MinutesBucket {
+
+        private int shiftCount = 0;
+        private long carryOverMinutes = 0L;
+        private long minutes = 0L; // Including the carry over minutes
+        private long penalty = 0L;
+
+        /**
+         * The DRL matches once per period, penalized by the minutes over the maximum.
+         */
+        private long getPenalty(int maximumMinutes) {
+            return Math.max(0L, minutes - maximumMinutes);
+        }
+    }
+}
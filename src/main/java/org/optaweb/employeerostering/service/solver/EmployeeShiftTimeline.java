@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.optaweb.employeerostering.domain.shift.Shift;
+
+/**
+ * The shifts of a single employee, sorted on {@link Shift#getStartDateTime()}.
+ * It is kept up to date by the caller on every planning variable change
+ * and counts the rest conflicts of a given shift in logarithmic time.
+ */
+public class EmployeeShiftTimeline {
+
+    // Shift start (in epoch minutes) to the shifts starting at that moment
+    private final TreeMap<Long, List<Shift>> startToShiftListMap = new TreeMap<>();
+    // Never shrinks, it only bounds how far back a search needs to look
+    private long maximumShiftDurationMinutes = 0L;
+    private int size = 0;
+
+    public void add(Shift shift) {
+        long startMinutes = getStartMinutes(shift);
+        maximumShiftDurationMinutes = Math.max(maximumShiftDurationMinutes, getEndMinutes(shift) - startMinutes);
+        startToShiftListMap.computeIfAbsent(startMinutes, s -> new ArrayList<>(2)).add(shift);
+        size++;
+    }
+
+    public void remove(Shift shift) {
+        long startMinutes = getStartMinutes(shift);
+        List<Shift> sameStartShiftList = startToShiftListMap.get(startMinutes);
+        if (sameStartShiftList == null || !sameStartShiftList.remove(shift)) {
+            throw new IllegalStateException("The shift (" + shift + ") is not in the timeline.");
+        }
+        if (sameStartShiftList.isEmpty()) {
+            startToShiftListMap.remove(startMinutes);
+        }
+        size--;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Counts the matches of the "No 2 shifts within 10 hours from each other" rule
+     * the shift takes part in, both as the left shift and as the right shift.
+     * @param shift never null, does not need to be in the timeline
+     * @param minimumRestMinutes {@code >= 0}
+     * @return {@code >= 0}
+     */
+    public int countRestConflicts(Shift shift, long minimumRestMinutes) {
+        long startMinutes = getStartMinutes(shift);
+        long endMinutes = getEndMinutes(shift);
+        int count = 0;
+        for (List<Shift> otherShiftList : startToShiftListMap.subMap(
+                startMinutes - minimumRestMinutes - maximumShiftDurationMinutes, true,
+                endMinutes + minimumRestMinutes, false).values()) {
+            for (Shift other : otherShiftList) {
+                if (other == shift) {
+                    continue;
+                }
+                long otherStartMinutes = getStartMinutes(other);
+                long otherEndMinutes = getEndMinutes(other);
+                // The shift as the left side, the other shift as the right side
+                if (endMinutes <= otherEndMinutes && otherStartMinutes - endMinutes < minimumRestMinutes) {
+                    count++;
+                }
+                // The other shift as the left side, the shift as the right side
+                if (otherEndMinutes <= endMinutes && startMinutes - otherEndMinutes < minimumRestMinutes) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static long getStartMinutes(Shift shift) {
+        return shift.getStartEpochMinute();
+    }
+
+    private static long getEndMinutes(Shift shift) {
+        return shift.getEndEpochMinute();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polls the platform MXBeans and reports once when the heap occupancy after garbage collection
+ * or the number of classes loaded since {@link #start(Consumer)} crosses its threshold.
+ * Drools JIT compiles every constraint into its own class, so the loaded class growth
+ * is a proxy for the number of JIT-ed constraint classes.
+ */
+public class HeapPressureWatchdog implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeapPressureWatchdog.class);
+
+    private final double maximumHeapOccupancy;
+    private final long maximumLoadedClassGrowth;
+    private final long pollingMillis;
+
+    private final List<MemoryPoolMXBean> memoryPoolMXBeanList = ManagementFactory.getMemoryPoolMXBeans();
+    private final ClassLoadingMXBean classLoadingMXBean = ManagementFactory.getClassLoadingMXBean();
+
+    private ScheduledExecutorService executorService;
+    private long baselineLoadedClassCount;
+    private volatile String pressureReason = null;
+
+    /**
+     * @param maximumHeapOccupancy {@code 0.0 < maximumHeapOccupancy <= 1.0}, of the heap pool maximum
+     * @param maximumLoadedClassGrowth {@code > 0}
+     * @param pollingMillis {@code > 0}
+     */
+    public HeapPressureWatchdog(double maximumHeapOccupancy, long maximumLoadedClassGrowth, long pollingMillis) {
+        if (maximumHeapOccupancy <= 0.0 || maximumHeapOccupancy > 1.0) {
+            throw new IllegalArgumentException("The maximumHeapOccupancy (" + maximumHeapOccupancy
+                                                       + ") must be between 0.0 (exclusive) and 1.0 (inclusive).");
+        }
+        this.maximumHeapOccupancy = maximumHeapOccupancy;
+        this.maximumLoadedClassGrowth = maximumLoadedClassGrowth;
+        this.pollingMillis = pollingMillis;
+    }
+
+    /**
+     * @param pressureListener never null, called at most once, from the watchdog thread
+     */
+    public void start(Consumer<String> pressureListener) {
+        if (executorService != null) {
+            throw new IllegalStateException("The watchdog has already been started.");
+        }
+        baselineLoadedClassCount = classLoadingMXBean.getTotalLoadedClassCount();
+        executorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "HeapWatchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.scheduleWithFixedDelay(() -> {
+            String reason = detectPressure();
+            if (reason != null) {
+                pressureReason = reason;
+                logger.warn("Memory pressure detected: {}.", reason);
+                executorService.shutdown();
+                pressureListener.accept(reason);
+            }
+        }, pollingMillis, pollingMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private String detectPressure() {
+        for (MemoryPoolMXBean memoryPoolMXBean : memoryPoolMXBeanList) {
+            if (memoryPoolMXBean.getType() != MemoryType.HEAP
+                    || !memoryPoolMXBean.isCollectionUsageThresholdSupported()) {
+                continue;
+            }
+            // The usage after the last collection, so garbage that is about to be collected doesn't count
+            MemoryUsage collectionUsage = memoryPoolMXBean.getCollectionUsage();
+            if (collectionUsage == null || collectionUsage.getMax() <= 0L) {
+                continue;
+            }
+            double occupancy = (double) collectionUsage.getUsed() / collectionUsage.getMax();
+            if (occupancy > maximumHeapOccupancy) {
+                return "heap pool (" + memoryPoolMXBean.getName() + ") occupancy (" + occupancy
+                        + ") exceeds the maximum (" + maximumHeapOccupancy + ")";
+            }
+        }
+        long loadedClassGrowth = classLoadingMXBean.getTotalLoadedClassCount() - baselineLoadedClassCount;
+        if (loadedClassGrowth > maximumLoadedClassGrowth) {
+            return "loaded class growth (" + loadedClassGrowth + ") exceeds the maximum ("
+                    + maximumLoadedClassGrowth + ")";
+        }
+        return null;
+    }
+
+    /**
+     * @return null if no pressure has been detected
+     */
+    public String getPressureReason() {
+        return pressureReason;
+    }
+
+    @Override
+    public void close() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+}
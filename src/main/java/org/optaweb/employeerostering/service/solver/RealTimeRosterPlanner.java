@@ -0,0 +1,123 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.optaplanner.core.api.solver.Solver;
+import org.optaweb.employeerostering.domain.contract.Contract;
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailability;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Real-time planning facade around a solving {@link Solver}.
+ * The edits are collected into a {@link RosterChangeBatch}, which is handed to the solver
+ * once the coalescing window after the first edit has passed,
+ * so a burst of edits restarts the score director once instead of once per edit.
+ * Thread-safe.
+ */
+public class RealTimeRosterPlanner implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RealTimeRosterPlanner.class);
+
+    private final Solver<Roster> solver;
+    private final long coalescingWindowMillis;
+    private final ScheduledExecutorService flushExecutor;
+
+    private RosterChangeBatch pendingBatch = null; // Guarded by this
+
+    /**
+     * @param solver never null
+     * @param coalescingWindowMillis {@code >= 0}, how long the edits after the first one of a batch are collected
+     */
+    public RealTimeRosterPlanner(Solver<Roster> solver, long coalescingWindowMillis) {
+        if (coalescingWindowMillis < 0L) {
+            throw new IllegalArgumentException("The coalescingWindowMillis (" + coalescingWindowMillis
+                                                       + ") must not be negative.");
+        }
+        this.solver = solver;
+        this.coalescingWindowMillis = coalescingWindowMillis;
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "RealTimeRosterPlanner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void addShift(Shift shift) {
+        edit(batch -> batch.addShift(shift));
+    }
+
+    public void removeShift(Shift shift) {
+        edit(batch -> batch.removeShift(shift));
+    }
+
+    public void addEmployeeAvailability(EmployeeAvailability employeeAvailability) {
+        edit(batch -> batch.addEmployeeAvailability(employeeAvailability));
+    }
+
+    public void removeEmployeeAvailability(EmployeeAvailability employeeAvailability) {
+        edit(batch -> batch.removeEmployeeAvailability(employeeAvailability));
+    }
+
+    public void changeEmployeeContract(Employee employee, Contract contract) {
+        edit(batch -> batch.changeEmployeeContract(employee, contract));
+    }
+
+    public void pinShift(Shift shift, boolean pinned) {
+        edit(batch -> batch.pinShift(shift, pinned));
+    }
+
+    private synchronized void edit(Consumer<RosterChangeBatch> edit) {
+        if (pendingBatch == null) {
+            pendingBatch = new RosterChangeBatch();
+            flushExecutor.schedule(this::flush, coalescingWindowMillis, TimeUnit.MILLISECONDS);
+        }
+        edit.accept(pendingBatch);
+    }
+
+    /**
+     * Hands the pending edits to the solver now, instead of at the end of the coalescing window.
+     */
+    public void flush() {
+        RosterChangeBatch batch;
+        synchronized (this) {
+            batch = pendingBatch;
+            pendingBatch = null;
+        }
+        if (batch != null && !batch.isEmpty()) {
+            logger.debug("Adding a problem fact change of {} edits.", batch.size());
+            solver.addProblemFactChange(batch);
+        }
+    }
+
+    /**
+     * Flushes the pending edits, but does not terminate the solver.
+     */
+    @Override
+    public void close() {
+        flushExecutor.shutdownNow();
+        flush();
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.solver.ProblemFactChange;
+import org.optaweb.employeerostering.domain.common.WeekBuckets;
+import org.optaweb.employeerostering.domain.contract.Contract;
+import org.optaweb.employeerostering.domain.contract.EmployeePeriodMinutes;
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailability;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.domain.spot.Spot;
+
+/**
+ * Many roster edits applied as a single {@link ProblemFactChange}, so the solver restarts its score director once.
+ * The employee availability edits are applied first, then the contract changes, then the shift additions
+ * and removals, then the pins, each group in the order of the edits.
+ * The best solution shares every problem fact, so the edits never change one in place:
+ * a contract change replaces the employee with a copy, and every spot too,
+ * because the rebuilt eligibility assigns new value ranges to the spots.
+ * The derived problem facts of the {@link Roster} that the edits invalidate are rebuilt once, at the end.
+ * New shifts and availabilities need an id, to be found by later changes.
+ */
+public class RosterChangeBatch implements ProblemFactChange<Roster> {
+
+    private enum EditType {
+        ADD_SHIFT,
+        REMOVE_SHIFT,
+        ADD_EMPLOYEE_AVAILABILITY,
+        REMOVE_EMPLOYEE_AVAILABILITY,
+        CHANGE_EMPLOYEE_CONTRACT,
+        PIN_SHIFT
+    }
+
+    private static final class Edit {
+
+        private final EditType type;
+        private final Object target;
+        private final Object value;
+
+        private Edit(EditType type, Object target, Object value) {
+            this.type = type;
+            this.target = target;
+            this.value = value;
+        }
+    }
+
+    private final List<Edit> editList = new ArrayList<>();
+
+    public RosterChangeBatch addShift(Shift shift) {
+        requireId(shift.getId(), shift);
+        editList.add(new Edit(EditType.ADD_SHIFT, shift, null));
+        return this;
+    }
+
+    public RosterChangeBatch removeShift(Shift shift) {
+        editList.add(new Edit(EditType.REMOVE_SHIFT, shift, null));
+        return this;
+    }
+
+    public RosterChangeBatch addEmployeeAvailability(EmployeeAvailability employeeAvailability) {
+        requireId(employeeAvailability.getId(), employeeAvailability);
+        editList.add(new Edit(EditType.ADD_EMPLOYEE_AVAILABILITY, employeeAvailability, null));
+        return this;
+    }
+
+    public RosterChangeBatch removeEmployeeAvailability(EmployeeAvailability employeeAvailability) {
+        editList.add(new Edit(EditType.REMOVE_EMPLOYEE_AVAILABILITY, employeeAvailability, null));
+        return this;
+    }
+
+    public RosterChangeBatch changeEmployeeContract(Employee employee, Contract contract) {
+        editList.add(new Edit(EditType.CHANGE_EMPLOYEE_CONTRACT, employee, contract));
+        return this;
+    }
+
+    public RosterChangeBatch pinShift(Shift shift, boolean pinned) {
+        editList.add(new Edit(EditType.PIN_SHIFT, shift, pinned));
+        return this;
+    }
+
+    private static void requireId(Long id, Object object) {
+        if (id == null) {
+            throw new IllegalArgumentException("The new object (" + object + ") must have an id.");
+        }
+    }
+
+    public int size() {
+        return editList.size();
+    }
+
+    public boolean isEmpty() {
+        return editList.isEmpty();
+    }
+
+    @Override
+    public void doChange(ScoreDirector<Roster> scoreDirector) {
+        Roster roster = scoreDirector.getWorkingSolution();
+        boolean shiftsChanged = false;
+        boolean availabilitiesChanged = false;
+        boolean contractsChanged = false;
+        List<Edit> workingEditList = new ArrayList<>(editList.size());
+        for (Edit edit : editList) {
+            Edit workingEdit;
+            switch (edit.type) {
+                case ADD_SHIFT:
+                    workingEdit = new Edit(edit.type, rebaseNewShift(scoreDirector, (Shift) edit.target), null);
+                    shiftsChanged = true;
+                    break;
+                case REMOVE_SHIFT:
+                    workingEdit = new Edit(edit.type, scoreDirector.lookUpWorkingObject(edit.target), null);
+                    shiftsChanged = true;
+                    break;
+                case ADD_EMPLOYEE_AVAILABILITY:
+                    EmployeeAvailability employeeAvailability = (EmployeeAvailability) edit.target;
+                    employeeAvailability.setEmployee(scoreDirector.lookUpWorkingObject(
+                            employeeAvailability.getEmployee()));
+                    workingEdit = edit;
+                    availabilitiesChanged = true;
+                    break;
+                case REMOVE_EMPLOYEE_AVAILABILITY:
+                    workingEdit = new Edit(edit.type, scoreDirector.lookUpWorkingObject(edit.target), null);
+                    availabilitiesChanged = true;
+                    break;
+                case CHANGE_EMPLOYEE_CONTRACT:
+                    workingEdit = new Edit(edit.type, scoreDirector.lookUpWorkingObject(edit.target),
+                                           scoreDirector.lookUpWorkingObject(edit.value));
+                    contractsChanged = true;
+                    // The availabilities of the employee are replaced too
+                    availabilitiesChanged = true;
+                    break;
+                case PIN_SHIFT:
+                    // Resolved when it is applied, the shift can be added by this batch
+                    workingEdit = edit;
+                    break;
+                default:
+                    throw new IllegalStateException("The edit type (" + edit.type + ") is not implemented.");
+            }
+            workingEditList.add(workingEdit);
+        }
+
+        // Every change is notified right around it: the facts with fact events, which make an incremental
+        // score calculator reset from the working solution, and the shifts with complete entity events
+        if (shiftsChanged) {
+            removeProblemFact(scoreDirector, roster.getShiftConflictGraph());
+        }
+        List<EmployeeAvailability> employeeAvailabilityList = null;
+        if (availabilitiesChanged) {
+            removeProblemFact(scoreDirector, roster.getEmployeeAvailabilityIndex());
+            // The best solution shares the problem fact lists, so never change them in place
+            employeeAvailabilityList = new ArrayList<>(roster.getEmployeeAvailabilityList());
+        }
+        Map<Spot, Spot> replacementSpotMap = Collections.emptyMap();
+        if (contractsChanged) {
+            removeProblemFact(scoreDirector, roster.getEmployeeSpotEligibility());
+            // Before any rebuild of the eligibility, which assigns the value ranges of the spots
+            replacementSpotMap = replaceSpots(scoreDirector, roster);
+        }
+
+        WeekBuckets weekBuckets = WeekBuckets.of(roster);
+        for (Edit edit : workingEditList) {
+            switch (edit.type) {
+                case ADD_EMPLOYEE_AVAILABILITY:
+                    EmployeeAvailability addedAvailability = (EmployeeAvailability) edit.target;
+                    weekBuckets.assignAvailabilityWeekBuckets(Collections.singletonList(addedAvailability));
+                    scoreDirector.beforeProblemFactAdded(addedAvailability);
+                    employeeAvailabilityList.add(addedAvailability);
+                    scoreDirector.afterProblemFactAdded(addedAvailability);
+                    break;
+                case REMOVE_EMPLOYEE_AVAILABILITY:
+                    scoreDirector.beforeProblemFactRemoved(edit.target);
+                    employeeAvailabilityList.remove(edit.target);
+                    scoreDirector.afterProblemFactRemoved(edit.target);
+                    break;
+                default:
+                    break;
+            }
+        }
+        // The best solution shares the employees, so a contract change replaces the employee with a copy
+        Map<Employee, Employee> replacementEmployeeMap = new IdentityHashMap<>();
+        for (Edit edit : workingEditList) {
+            if (edit.type == EditType.CHANGE_EMPLOYEE_CONTRACT) {
+                Employee employee = (Employee) edit.target;
+                Employee replacementEmployee = new Employee(replacementEmployeeMap.getOrDefault(employee, employee));
+                replacementEmployee.setContract((Contract) edit.value);
+                replacementEmployeeMap.put(employee, replacementEmployee);
+            }
+        }
+        if (contractsChanged) {
+            replaceEmployees(scoreDirector, roster, replacementEmployeeMap, employeeAvailabilityList);
+        }
+        if (availabilitiesChanged) {
+            // Also resets the employee availability index, before a shift is scored with it
+            roster.setEmployeeAvailabilityList(employeeAvailabilityList);
+        }
+        for (Edit edit : workingEditList) {
+            switch (edit.type) {
+                case ADD_SHIFT:
+                    Shift addedShift = (Shift) edit.target;
+                    addedShift.setSpot(replacementSpotMap.getOrDefault(addedShift.getSpot(), addedShift.getSpot()));
+                    addedShift.setEmployee(replacementEmployeeMap.getOrDefault(addedShift.getEmployee(),
+                                                                               addedShift.getEmployee()));
+                    addedShift.setRotationEmployee(replacementEmployeeMap.getOrDefault(
+                            addedShift.getRotationEmployee(), addedShift.getRotationEmployee()));
+                    weekBuckets.assignWeekBuckets(Collections.singletonList(addedShift));
+                    scoreDirector.beforeEntityAdded(addedShift);
+                    roster.getShiftList().add(addedShift);
+                    scoreDirector.afterEntityAdded(addedShift);
+                    break;
+                case REMOVE_SHIFT:
+                    scoreDirector.beforeEntityRemoved(edit.target);
+                    roster.getShiftList().remove(edit.target);
+                    scoreDirector.afterEntityRemoved(edit.target);
+                    break;
+                default:
+                    break;
+            }
+        }
+        for (Edit edit : workingEditList) {
+            if (edit.type == EditType.PIN_SHIFT) {
+                Shift shift = scoreDirector.lookUpWorkingObject((Shift) edit.target);
+                scoreDirector.beforeProblemPropertyChanged(shift);
+                shift.setPinnedByUser((Boolean) edit.value);
+                scoreDirector.afterProblemPropertyChanged(shift);
+            }
+        }
+
+        if (shiftsChanged) {
+            // The new graph keeps the ordinals of the other shifts, only the added shifts get one
+            List<Shift> addedShiftList = new ArrayList<>();
+            for (Edit edit : workingEditList) {
+                if (edit.type == EditType.ADD_SHIFT) {
+                    Shift addedShift = (Shift) edit.target;
+                    scoreDirector.beforeProblemPropertyChanged(addedShift);
+                    addedShiftList.add(addedShift);
+                }
+            }
+            roster.resetShiftConflictGraph();
+            addProblemFact(scoreDirector, roster.getShiftConflictGraph());
+            for (Shift addedShift : addedShiftList) {
+                scoreDirector.afterProblemPropertyChanged(addedShift);
+            }
+        }
+        if (availabilitiesChanged) {
+            addProblemFact(scoreDirector, roster.getEmployeeAvailabilityIndex());
+        }
+        if (contractsChanged) {
+            // A reset of the score director in between can have built it from a partially replaced employee list.
+            // Rebuilding it reassigns the value ranges of the copied spots only
+            roster.resetEmployeeSpotEligibility();
+            addProblemFact(scoreDirector, roster.getEmployeeSpotEligibility());
+        }
+        scoreDirector.triggerVariableListeners();
+    }
+
+    /**
+     * Replaces every spot of the working solution with a copy, in the spot list and the shifts,
+     * so rebuilding the employee spot eligibility never changes the value ranges of the best solution.
+     * @return never null, the copy of every spot
+     */
+    private static Map<Spot, Spot> replaceSpots(ScoreDirector<Roster> scoreDirector, Roster roster) {
+        List<Spot> spotList = roster.getSpotList();
+        Map<Spot, Spot> replacementSpotMap = new IdentityHashMap<>(spotList.size());
+        List<Spot> replacementSpotList = new ArrayList<>(spotList.size());
+        for (Spot spot : spotList) {
+            scoreDirector.beforeProblemFactRemoved(spot);
+            Spot replacementSpot = new Spot(spot);
+            replacementSpotMap.put(spot, replacementSpot);
+            replacementSpotList.add(replacementSpot);
+        }
+        // All at once: a reset of the score director in between must never see an original spot in the list
+        roster.setSpotList(replacementSpotList);
+        for (Spot spot : spotList) {
+            scoreDirector.afterProblemFactRemoved(spot);
+        }
+        for (Spot replacementSpot : replacementSpotList) {
+            addProblemFact(scoreDirector, replacementSpot);
+        }
+        for (Shift shift : roster.getShiftList()) {
+            scoreDirector.beforeProblemPropertyChanged(shift);
+            shift.setSpot(replacementSpotMap.get(shift.getSpot()));
+            scoreDirector.afterProblemPropertyChanged(shift);
+        }
+        return replacementSpotMap;
+    }
+
+    /**
+     * Replaces the employees everywhere in the working solution: in the employee list, the shifts,
+     * the availabilities and the carried over minutes, so no object of the best solution is changed.
+     */
+    private static void replaceEmployees(ScoreDirector<Roster> scoreDirector, Roster roster,
+                                         Map<Employee, Employee> replacementEmployeeMap,
+                                         List<EmployeeAvailability> employeeAvailabilityList) {
+        // Also resets the employee spot eligibility, which is keyed by employee
+        List<Employee> employeeList = new ArrayList<>(roster.getEmployeeList());
+        roster.setEmployeeList(employeeList);
+        for (int i = 0; i < employeeList.size(); i++) {
+            Employee replacementEmployee = replacementEmployeeMap.get(employeeList.get(i));
+            if (replacementEmployee != null) {
+                replaceProblemFact(scoreDirector, employeeList, i, replacementEmployee);
+            }
+        }
+        for (int i = 0; i < employeeAvailabilityList.size(); i++) {
+            EmployeeAvailability employeeAvailability = employeeAvailabilityList.get(i);
+            Employee replacementEmployee = replacementEmployeeMap.get(employeeAvailability.getEmployee());
+            if (replacementEmployee != null) {
+                EmployeeAvailability replacementAvailability = new EmployeeAvailability(employeeAvailability);
+                replacementAvailability.setEmployee(replacementEmployee);
+                replaceProblemFact(scoreDirector, employeeAvailabilityList, i, replacementAvailability);
+            }
+        }
+        List<EmployeePeriodMinutes> employeePeriodMinutesList = new ArrayList<>(
+                roster.getEmployeePeriodMinutesList());
+        roster.setEmployeePeriodMinutesList(employeePeriodMinutesList);
+        for (int i = 0; i < employeePeriodMinutesList.size(); i++) {
+            EmployeePeriodMinutes employeePeriodMinutes = employeePeriodMinutesList.get(i);
+            Employee replacementEmployee = replacementEmployeeMap.get(employeePeriodMinutes.getEmployee());
+            if (replacementEmployee != null) {
+                replaceProblemFact(scoreDirector, employeePeriodMinutesList, i, new EmployeePeriodMinutes(
+                        replacementEmployee, employeePeriodMinutes.getType(), employeePeriodMinutes.getBucket(),
+                        employeePeriodMinutes.getMinutes()));
+            }
+        }
+        // The shifts are cloned per solution, so they change in place
+        for (Shift shift : roster.getShiftList()) {
+            Employee replacementEmployee = replacementEmployeeMap.get(shift.getEmployee());
+            if (replacementEmployee != null) {
+                scoreDirector.beforeVariableChanged(shift, "employee");
+                shift.setEmployee(replacementEmployee);
+                scoreDirector.afterVariableChanged(shift, "employee");
+            }
+            Employee replacementRotationEmployee = replacementEmployeeMap.get(shift.getRotationEmployee());
+            if (replacementRotationEmployee != null) {
+                scoreDirector.beforeProblemPropertyChanged(shift);
+                shift.setRotationEmployee(replacementRotationEmployee);
+                scoreDirector.afterProblemPropertyChanged(shift);
+            }
+        }
+    }
+
+    private static <T> void replaceProblemFact(ScoreDirector<Roster> scoreDirector, List<T> factList, int index,
+                                               T replacementFact) {
+        T fact = factList.get(index);
+        scoreDirector.beforeProblemFactRemoved(fact);
+        factList.set(index, replacementFact);
+        scoreDirector.afterProblemFactRemoved(fact);
+        addProblemFact(scoreDirector, replacementFact);
+    }
+
+    private static Shift rebaseNewShift(ScoreDirector<Roster> scoreDirector, Shift shift) {
+        // A copy of another shift must not take its ordinal in the new shift conflict graph
+        shift.setConflictGraphOrdinal(-1);
+        shift.setSpot(scoreDirector.lookUpWorkingObject(shift.getSpot()));
+        if (shift.getRotationEmployee() != null) {
+            shift.setRotationEmployee(scoreDirector.lookUpWorkingObject(shift.getRotationEmployee()));
+        }
+        if (shift.getEmployee() != null) {
+            shift.setEmployee(scoreDirector.lookUpWorkingObject(shift.getEmployee()));
+        }
+        return shift;
+    }
+
+    private static void removeProblemFact(ScoreDirector<Roster> scoreDirector, Object problemFact) {
+        scoreDirector.beforeProblemFactRemoved(problemFact);
+        scoreDirector.afterProblemFactRemoved(problemFact);
+    }
+
+    private static void addProblemFact(ScoreDirector<Roster> scoreDirector, Object problemFact) {
+        scoreDirector.beforeProblemFactAdded(problemFact);
+        scoreDirector.afterProblemFactAdded(problemFact);
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.optaplanner.core.api.score.buildin.hardmediumsoftlong.HardMediumSoftLongScore;
+import org.optaplanner.persistence.jackson.api.OptaPlannerJacksonModule;
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.shift.Shift;
+
+/**
+ * The employee of every assigned shift of a best solution, by id.
+ * The problem itself is not stored: it is regenerated from the same options,
+ * so the checkpoint stays small and is written quickly.
+ */
+public class RosterCheckpoint {
+
+    private String problemName;
+    private HardMediumSoftLongScore score;
+    private Map<Long, Long> shiftIdToEmployeeIdMap = new TreeMap<>();
+
+    public RosterCheckpoint() {
+    }
+
+    /**
+     * @param problemName never null, identifies the problem the solution can be restored into
+     * @param solution never null, not being solved
+     */
+    public RosterCheckpoint(String problemName, Roster solution) {
+        this.problemName = problemName;
+        this.score = solution.getScore();
+        for (Shift shift : solution.getShiftList()) {
+            if (shift.getEmployee() != null) {
+                shiftIdToEmployeeIdMap.put(shift.getId(), shift.getEmployee().getId());
+            }
+        }
+    }
+
+    static ObjectMapper createObjectMapper() {
+        return new ObjectMapper().registerModule(OptaPlannerJacksonModule.createModule());
+    }
+
+    public static RosterCheckpoint read(Path path) throws IOException {
+        return createObjectMapper().readValue(path.toFile(), RosterCheckpoint.class);
+    }
+
+    /**
+     * Assigns the employees of this checkpoint to the movable draft shifts of the problem,
+     * so the solver starts from the checkpoint instead of from scratch.
+     * The other shifts keep their employee.
+     * @param problem never null, generated with the same options as the checkpointed solution, not being solved
+     * @return {@code >= 0}, the number of assigned shifts
+     */
+    public int restore(Roster problem) {
+        Map<Long, Employee> idToEmployeeMap = new HashMap<>(problem.getEmployeeList().size());
+        for (Employee employee : problem.getEmployeeList()) {
+            idToEmployeeMap.put(employee.getId(), employee);
+        }
+        int assignedCount = 0;
+        for (Shift shift : problem.getShiftList()) {
+            if (shift.isPinnedByUser() || !problem.getRosterState().isDraft(shift)) {
+                continue;
+            }
+            Long employeeId = shiftIdToEmployeeIdMap.get(shift.getId());
+            Employee employee = null;
+            if (employeeId != null) {
+                employee = idToEmployeeMap.get(employeeId);
+                if (employee == null) {
+                    throw new IllegalArgumentException("The checkpoint assigns the shift (" + shift
+                                                               + ") to an employee id (" + employeeId
+                                                               + ") that is not in the problem.");
+                }
+                assignedCount++;
+            }
+            shift.setEmployee(employee);
+        }
+        return assignedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Checkpoint of " + problemName + " with score (" + score + ")";
+    }
+
+    // ************************************************************************
+    // Simple getters and setters
+    // ************************************************************************
+
+    public String getProblemName() {
+        return problemName;
+    }
+
+    public void setProblemName(String problemName) {
+        this.problemName = problemName;
+    }
+
+    public HardMediumSoftLongScore getScore() {
+        return score;
+    }
+
+    public void setScore(HardMediumSoftLongScore score) {
+        this.score = score;
+    }
+
+    public Map<Long, Long> getShiftIdToEmployeeIdMap() {
+        return shiftIdToEmployeeIdMap;
+    }
+
+    public void setShiftIdToEmployeeIdMap(Map<Long, Long> shiftIdToEmployeeIdMap) {
+        this.shiftIdToEmployeeIdMap = shiftIdToEmployeeIdMap;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes a {@link RosterCheckpoint} of the new best solutions to a file, at most once per write interval,
+ * so a solve that dies, for example with an {@link OutOfMemoryError}, can be resumed.
+ * The solver thread only hands over the best solution, which is a clone the solver no longer changes:
+ * the checkpoint is built and written on a separate thread, into a temporary file that then atomically
+ * replaces the checkpoint file, so the file is never half written.
+ * Thread-safe.
+ */
+public class RosterCheckpointWriter implements SolverEventListener<Roster>, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RosterCheckpointWriter.class);
+
+    private final Path checkpointPath;
+    private final String problemName;
+    private final long writeIntervalMillis;
+    private final ObjectMapper objectMapper = RosterCheckpoint.createObjectMapper();
+    private final ScheduledThreadPoolExecutor writeExecutor;
+
+    private Roster pendingSolution = null; // Guarded by this
+    private long lastWriteMillis = Long.MIN_VALUE; // Guarded by this
+
+    /**
+     * @param checkpointPath never null, its directory must exist
+     * @param problemName never null, see {@link RosterCheckpoint#getProblemName()}
+     * @param writeIntervalMillis {@code >= 0}, the minimum time between 2 writes
+     */
+    public RosterCheckpointWriter(Path checkpointPath, String problemName, long writeIntervalMillis) {
+        if (writeIntervalMillis < 0L) {
+            throw new IllegalArgumentException("The writeIntervalMillis (" + writeIntervalMillis
+                                                       + ") must not be negative.");
+        }
+        this.checkpointPath = checkpointPath.toAbsolutePath();
+        this.problemName = problemName;
+        this.writeIntervalMillis = writeIntervalMillis;
+        writeExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "RosterCheckpointWriter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // close() writes the pending solution itself instead of waiting for the interval
+        writeExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    @Override
+    public void bestSolutionChanged(BestSolutionChangedEvent<Roster> event) {
+        long delayMillis;
+        synchronized (this) {
+            boolean scheduled = pendingSolution != null;
+            pendingSolution = event.getNewBestSolution();
+            if (scheduled) {
+                return;
+            }
+            delayMillis = lastWriteMillis == Long.MIN_VALUE ? 0L
+                    : Math.max(0L, lastWriteMillis + writeIntervalMillis - System.currentTimeMillis());
+        }
+        writeExecutor.schedule(this::writePendingSolution, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void writePendingSolution() {
+        Roster solution;
+        synchronized (this) {
+            solution = pendingSolution;
+            pendingSolution = null;
+            lastWriteMillis = System.currentTimeMillis();
+        }
+        if (solution == null) {
+            return;
+        }
+        RosterCheckpoint checkpoint = new RosterCheckpoint(problemName, solution);
+        Path temporaryPath = null;
+        try {
+            temporaryPath = Files.createTempFile(checkpointPath.getParent(), checkpointPath.getFileName().toString(),
+                                                 ".tmp");
+            objectMapper.writeValue(temporaryPath.toFile(), checkpoint);
+            Files.move(temporaryPath, checkpointPath, StandardCopyOption.ATOMIC_MOVE,
+                       StandardCopyOption.REPLACE_EXISTING);
+            logger.debug("Wrote the checkpoint ({}) with score ({}).", checkpointPath, checkpoint.getScore());
+        } catch (IOException e) {
+            // Keep solving, the previous checkpoint is still intact
+            logger.warn("Could not write the checkpoint ({}).", checkpointPath, e);
+            if (temporaryPath != null) {
+                try {
+                    Files.deleteIfExists(temporaryPath);
+                } catch (IOException deleteException) {
+                    e.addSuppressed(deleteException);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for the running write, then writes the last best solution if it is not written yet.
+     */
+    @Override
+    public void close() {
+        writeExecutor.shutdown();
+        try {
+            writeExecutor.awaitTermination(1L, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writePendingSolution();
+    }
+}
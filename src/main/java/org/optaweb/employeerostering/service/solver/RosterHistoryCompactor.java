@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.optaweb.employeerostering.domain.contract.ContractPeriod;
+import org.optaweb.employeerostering.domain.contract.EmployeePeriodMinutes;
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailability;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.roster.RosterState;
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.domain.shift.ShiftConflictGraph;
+import org.optaweb.employeerostering.domain.violation.ContractMinutesViolation;
+
+/**
+ * Removes the historic and published shifts, which never move, from a roster before it is solved,
+ * so the working memory and the score calculation scale with the draft instead of the whole horizon.
+ * Their minutes in the days, weeks, months and years of the draft become {@link EmployeePeriodMinutes} problem facts,
+ * which the contract minutes rules add to their sums.
+ * The shifts that end less than the minimum rest before the draft stay, for the rest rule.
+ * The other rules of the removed shifts only added a constant to the score, which the compacted roster loses.
+ */
+public class RosterHistoryCompactor {
+
+    private long minimumRestMinutes = ShiftConflictGraph.DEFAULT_MINIMUM_REST_MINUTES;
+
+    /**
+     * @param roster never null, changed in place, not being solved
+     * @return {@code >= 0}, the number of removed shifts
+     */
+    public int compact(Roster roster) {
+        RosterState rosterState = roster.getRosterState();
+        List<Shift> shiftList = roster.getShiftList();
+        long draftStartEpochMinute = Long.MAX_VALUE;
+        for (Shift shift : shiftList) {
+            if (rosterState.isDraft(shift)) {
+                draftStartEpochMinute = Math.min(draftStartEpochMinute, shift.getStartEpochMinute());
+            }
+        }
+        List<Shift> keptShiftList = new ArrayList<>(shiftList.size());
+        List<Shift> removedShiftList = new ArrayList<>();
+        for (Shift shift : shiftList) {
+            if (rosterState.isDraft(shift) || shift.getEndEpochMinute() > draftStartEpochMinute - minimumRestMinutes) {
+                keptShiftList.add(shift);
+            } else {
+                removedShiftList.add(shift);
+            }
+        }
+        if (removedShiftList.isEmpty()) {
+            return 0;
+        }
+
+        // Only the periods that still have shifts can change
+        Set<ContractPeriod> keptContractPeriodSet = new HashSet<>(ContractPeriod.extractContractPeriodList(
+                keptShiftList));
+        Map<Employee, Map<ContractPeriod, Long>> employeeToPeriodMinutesMap = new LinkedHashMap<>();
+        // Merged into the minutes of an earlier compaction, the rules expect 1 per employee and period
+        for (EmployeePeriodMinutes employeePeriodMinutes : roster.getEmployeePeriodMinutesList()) {
+            employeeToPeriodMinutesMap.computeIfAbsent(employeePeriodMinutes.getEmployee(), e -> new LinkedHashMap<>())
+                    .merge(new ContractPeriod(employeePeriodMinutes.getType(), employeePeriodMinutes.getBucket()),
+                           employeePeriodMinutes.getMinutes(), Long::sum);
+        }
+        for (Shift shift : removedShiftList) {
+            Employee employee = shift.getEmployee();
+            if (employee == null) {
+                continue;
+            }
+            for (ContractMinutesViolation.Type type : ContractMinutesViolation.Type.values()) {
+                ContractPeriod contractPeriod = new ContractPeriod(type, shift.getBucket(type));
+                if (keptContractPeriodSet.contains(contractPeriod)) {
+                    employeeToPeriodMinutesMap.computeIfAbsent(employee, e -> new LinkedHashMap<>())
+                            .merge(contractPeriod, (long) shift.getDurationMinutes(), Long::sum);
+                }
+            }
+        }
+        List<EmployeePeriodMinutes> employeePeriodMinutesList = new ArrayList<>();
+        employeeToPeriodMinutesMap.forEach((employee, periodMinutesMap) -> periodMinutesMap.forEach(
+                (contractPeriod, minutes) -> employeePeriodMinutesList.add(new EmployeePeriodMinutes(
+                        employee, contractPeriod.getType(), contractPeriod.getBucket(), minutes))));
+
+        long keptStartEpochMinute = keptShiftList.stream().mapToLong(Shift::getStartEpochMinute).min()
+                .orElse(Long.MAX_VALUE);
+        List<EmployeeAvailability> keptAvailabilityList = new ArrayList<>(roster.getEmployeeAvailabilityList().size());
+        for (EmployeeAvailability employeeAvailability : roster.getEmployeeAvailabilityList()) {
+            // Overlap is inclusive
+            if (employeeAvailability.getEndEpochMinute() >= keptStartEpochMinute) {
+                keptAvailabilityList.add(employeeAvailability);
+            }
+        }
+
+        // The setters also reset the derived problem facts
+        roster.setShiftList(keptShiftList);
+        roster.setEmployeePeriodMinutesList(employeePeriodMinutesList);
+        roster.setEmployeeAvailabilityList(keptAvailabilityList);
+        return removedShiftList.size();
+    }
+
+    // ************************************************************************
+    // Simple getters and setters
+    // ************************************************************************
+
+    public long getMinimumRestMinutes() {
+        return minimumRestMinutes;
+    }
+
+    public void setMinimumRestMinutes(long minimumRestMinutes) {
+        this.minimumRestMinutes = minimumRestMinutes;
+    }
+}
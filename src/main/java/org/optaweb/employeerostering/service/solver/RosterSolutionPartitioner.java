@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.partitionedsearch.partitioner.SolutionPartitioner;
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.roster.EmployeeSpotEligibility;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.domain.spot.Spot;
+
+/**
+ * Splits a roster for the partitioned search, with one of 2 {@link Strategy strategies}.
+ * Every part shares the problem facts and the derived indexes of the roster and has its own clones of its shifts.
+ * Configured with the {@code solutionPartitionerCustomProperties} {@code strategy} and {@code weeksPerPartition}.
+ */
+public class RosterSolutionPartitioner implements SolutionPartitioner<Roster> {
+
+    public enum Strategy {
+        /**
+         * A part per {@link #setWeeksPerPartition(int) weeksPerPartition} weeks of
+         * {@link org.optaweb.employeerostering.domain.tenant.RosterParametrization#getWeekStartDay()}.
+         * A part does not see the shifts of the other parts, so the rest rule ignores the pairs across a boundary
+         * and the monthly and yearly minutes rules only sum the shifts of the part,
+         * until the local search over the whole roster that must follow the partitioned search.
+         */
+        WEEK,
+        /**
+         * A part per connected component of the graph of the employees and the spots they are eligible for.
+         * No employee can work in 2 parts, so the parts are independent.
+         */
+        SKILL_COMPONENT
+    }
+
+    private Strategy strategy = Strategy.WEEK;
+    private int weeksPerPartition = 1;
+
+    @Override
+    public List<Roster> splitWorkingSolution(ScoreDirector<Roster> scoreDirector, Integer runnablePartThreadLimit) {
+        Roster roster = scoreDirector.getWorkingSolution();
+        List<List<Shift>> partShiftListList;
+        switch (strategy) {
+            case WEEK:
+                partShiftListList = splitByWeek(roster.getShiftList());
+                break;
+            case SKILL_COMPONENT:
+                partShiftListList = splitBySkillComponent(roster, runnablePartThreadLimit);
+                break;
+            default:
+                throw new IllegalStateException("The strategy (" + strategy + ") is not implemented.");
+        }
+        List<Roster> partList = new ArrayList<>(partShiftListList.size());
+        for (List<Shift> partShiftList : partShiftListList) {
+            Roster part = new Roster(roster, partShiftList);
+            part.setScore(null);
+            partList.add(part);
+        }
+        return partList;
+    }
+
+    private List<List<Shift>> splitByWeek(List<Shift> shiftList) {
+        TreeMap<Integer, List<Shift>> partIndexToShiftListMap = new TreeMap<>();
+        for (Shift shift : shiftList) {
+            int partIndex = Math.floorDiv(shift.getWeekBucket(), weeksPerPartition);
+            partIndexToShiftListMap.computeIfAbsent(partIndex, k -> new ArrayList<>()).add(new Shift(shift));
+        }
+        return new ArrayList<>(partIndexToShiftListMap.values());
+    }
+
+    private static List<List<Shift>> splitBySkillComponent(Roster roster, Integer runnablePartThreadLimit) {
+        List<Employee> employeeList = roster.getEmployeeList();
+        List<Spot> spotList = roster.getSpotList();
+        EmployeeSpotEligibility employeeSpotEligibility = roster.getEmployeeSpotEligibility();
+        // Union-find over the employees, followed by the spots
+        int[] parents = new int[employeeList.size() + spotList.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (int spotIndex = 0; spotIndex < spotList.size(); spotIndex++) {
+            Spot spot = spotList.get(spotIndex);
+            for (int employeeIndex = 0; employeeIndex < employeeList.size(); employeeIndex++) {
+                if (employeeSpotEligibility.isEligible(employeeList.get(employeeIndex), spot)) {
+                    union(parents, employeeIndex, employeeList.size() + spotIndex);
+                }
+            }
+        }
+        Map<Spot, Integer> spotToComponentMap = new IdentityHashMap<>(spotList.size());
+        for (int spotIndex = 0; spotIndex < spotList.size(); spotIndex++) {
+            spotToComponentMap.put(spotList.get(spotIndex), find(parents, employeeList.size() + spotIndex));
+        }
+        Map<Integer, List<Shift>> componentToShiftListMap = new TreeMap<>();
+        for (Shift shift : roster.getShiftList()) {
+            componentToShiftListMap.computeIfAbsent(spotToComponentMap.get(shift.getSpot()), k -> new ArrayList<>())
+                    .add(new Shift(shift));
+        }
+        List<List<Shift>> componentShiftListList = new ArrayList<>(componentToShiftListMap.values());
+        if (runnablePartThreadLimit == null || componentShiftListList.size() <= runnablePartThreadLimit) {
+            return componentShiftListList;
+        }
+        // More components than threads: merge them, largest first into the smallest part
+        componentShiftListList.sort(Comparator.comparingInt(List<Shift>::size).reversed());
+        List<List<Shift>> partShiftListList = new ArrayList<>(runnablePartThreadLimit);
+        for (int i = 0; i < runnablePartThreadLimit; i++) {
+            partShiftListList.add(new ArrayList<>());
+        }
+        for (List<Shift> componentShiftList : componentShiftListList) {
+            partShiftListList.stream().min(Comparator.comparingInt(List::size)).get().addAll(componentShiftList);
+        }
+        return partShiftListList;
+    }
+
+    private static int find(int[] parents, int i) {
+        while (parents[i] != i) {
+            parents[i] = parents[parents[i]];
+            i = parents[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parents, int i, int j) {
+        int rootI = find(parents, i);
+        int rootJ = find(parents, j);
+        if (rootI != rootJ) {
+            parents[Math.max(rootI, rootJ)] = Math.min(rootI, rootJ);
+        }
+    }
+
+    // ************************************************************************
+    // Simple getters and setters
+    // ************************************************************************
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @param strategy the name of a {@link Strategy}, as a String for the {@code solutionPartitionerCustomProperties}
+     */
+    public void setStrategy(String strategy) {
+        this.strategy = Strategy.valueOf(strategy);
+    }
+
+    public int getWeeksPerPartition() {
+        return weeksPerPartition;
+    }
+
+    public void setWeeksPerPartition(int weeksPerPartition) {
+        this.weeksPerPartition = weeksPerPartition;
+    }
+}
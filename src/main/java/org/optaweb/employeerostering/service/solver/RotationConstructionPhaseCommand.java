@@ -0,0 +1,157 @@
+/*
+ * Copyright 2019 Red Hat, Inc. and/or its affiliates.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.optaweb.employeerostering.service.solver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.phase.custom.CustomPhaseCommand;
+import org.optaweb.employeerostering.domain.contract.Contract;
+import org.optaweb.employeerostering.domain.contract.EmployeePeriodMinutes;
+import org.optaweb.employeerostering.domain.employee.Employee;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailability;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailabilityIndex;
+import org.optaweb.employeerostering.domain.employee.EmployeeAvailabilityState;
+import org.optaweb.employeerostering.domain.roster.EmployeeSpotEligibility;
+import org.optaweb.employeerostering.domain.roster.Roster;
+import org.optaweb.employeerostering.domain.shift.Shift;
+import org.optaweb.employeerostering.domain.shift.ShiftConflictGraph;
+import org.optaweb.employeerostering.domain.violation.ContractMinutesViolation;
+
+/**
+ * Construction phase that assigns every unassigned, unpinned draft shift in start order,
+ * first to its rotation employee and then, for the shifts left, to the eligible employee with the fewest minutes
+ * that week, as long as the assignment breaks no hard constraint.
+ * A shift without such an employee stays unassigned for the local search.
+ */
+public class RotationConstructionPhaseCommand implements CustomPhaseCommand<Roster> {
+
+    private static final Comparator<Shift> START_COMPARATOR = Comparator.comparingLong(Shift::getStartEpochMinute)
+            .thenComparingLong(Shift::getEndEpochMinute);
+
+    private EmployeeSpotEligibility employeeSpotEligibility;
+    private EmployeeAvailabilityIndex employeeAvailabilityIndex;
+    private Map<Employee, EmployeeShiftTimeline> employeeToShiftTimelineMap;
+    private Map<ContractMinutesViolation.Type, Map<Employee, Map<Integer, Long>>> typeToEmployeeMinutesMap;
+
+    @Override
+    public void changeWorkingSolution(ScoreDirector<Roster> scoreDirector) {
+        Roster roster = scoreDirector.getWorkingSolution();
+        employeeSpotEligibility = roster.getEmployeeSpotEligibility();
+        employeeAvailabilityIndex = roster.getEmployeeAvailabilityIndex();
+        employeeToShiftTimelineMap = new IdentityHashMap<>(roster.getEmployeeList().size());
+        typeToEmployeeMinutesMap = new EnumMap<>(ContractMinutesViolation.Type.class);
+        for (ContractMinutesViolation.Type type : ContractMinutesViolation.Type.values()) {
+            typeToEmployeeMinutesMap.put(type, new IdentityHashMap<>(roster.getEmployeeList().size()));
+        }
+        for (EmployeePeriodMinutes employeePeriodMinutes : roster.getEmployeePeriodMinutesList()) {
+            addMinutes(employeePeriodMinutes.getType(), employeePeriodMinutes.getEmployee(),
+                       employeePeriodMinutes.getBucket(), employeePeriodMinutes.getMinutes());
+        }
+        List<Shift> unassignedShiftList = new ArrayList<>();
+        for (Shift shift : roster.getShiftList()) {
+            if (shift.getEmployee() != null) {
+                register(shift.getEmployee(), shift);
+            } else if (!shift.isPinnedByUser() && roster.getRosterState().isDraft(shift)) {
+                unassignedShiftList.add(shift);
+            }
+        }
+        unassignedShiftList.sort(START_COMPARATOR);
+
+        List<Shift> remainingShiftList = new ArrayList<>(unassignedShiftList.size());
+        for (Shift shift : unassignedShiftList) {
+            Employee rotationEmployee = shift.getRotationEmployee();
+            if (rotationEmployee != null && employeeSpotEligibility.isEligible(rotationEmployee, shift.getSpot())
+                    && isFeasible(rotationEmployee, shift)) {
+                assign(scoreDirector, shift, rotationEmployee);
+            } else {
+                remainingShiftList.add(shift);
+            }
+        }
+        for (Shift shift : remainingShiftList) {
+            Employee bestEmployee = null;
+            long bestWeekMinutes = Long.MAX_VALUE;
+            for (Employee employee : shift.getEligibleEmployeeList()) {
+                long weekMinutes = getMinutes(ContractMinutesViolation.Type.WEEK, employee, shift.getWeekBucket());
+                if (weekMinutes < bestWeekMinutes && isFeasible(employee, shift)) {
+                    bestEmployee = employee;
+                    bestWeekMinutes = weekMinutes;
+                }
+            }
+            if (bestEmployee != null) {
+                assign(scoreDirector, shift, bestEmployee);
+            }
+        }
+        employeeToShiftTimelineMap = null;
+        typeToEmployeeMinutesMap = null;
+    }
+
+    private boolean isFeasible(Employee employee, Shift shift) {
+        Contract contract = employee.getContract();
+        long durationMinutes = shift.getDurationMinutes();
+        for (ContractMinutesViolation.Type type : ContractMinutesViolation.Type.values()) {
+            Integer maximumMinutes = contract.getMaximumMinutes(type);
+            if (maximumMinutes != null
+                    && getMinutes(type, employee, shift.getBucket(type)) + durationMinutes > maximumMinutes) {
+                return false;
+            }
+        }
+        EmployeeShiftTimeline timeline = employeeToShiftTimelineMap.get(employee);
+        if (timeline != null
+                && timeline.countRestConflicts(shift, ShiftConflictGraph.DEFAULT_MINIMUM_REST_MINUTES) > 0) {
+            return false;
+        }
+        for (EmployeeAvailability employeeAvailability
+                : employeeAvailabilityIndex.getOverlappingAvailabilityList(employee, shift)) {
+            if (employeeAvailability.getState() == EmployeeAvailabilityState.UNAVAILABLE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void assign(ScoreDirector<Roster> scoreDirector, Shift shift, Employee employee) {
+        scoreDirector.beforeVariableChanged(shift, "employee");
+        shift.setEmployee(employee);
+        scoreDirector.afterVariableChanged(shift, "employee");
+        scoreDirector.triggerVariableListeners();
+        register(employee, shift);
+    }
+
+    private void register(Employee employee, Shift shift) {
+        employeeToShiftTimelineMap.computeIfAbsent(employee, e -> new EmployeeShiftTimeline()).add(shift);
+        for (ContractMinutesViolation.Type type : ContractMinutesViolation.Type.values()) {
+            addMinutes(type, employee, shift.getBucket(type), shift.getDurationMinutes());
+        }
+    }
+
+    private void addMinutes(ContractMinutesViolation.Type type, Employee employee, int bucket, long minutes) {
+        typeToEmployeeMinutesMap.get(type).computeIfAbsent(employee, e -> new HashMap<>())
+                .merge(bucket, minutes, Long::sum);
+    }
+
+    private long getMinutes(ContractMinutesViolation.Type type, Employee employee, int bucket) {
+        Map<Integer, Long> bucketToMinutesMap = typeToEmployeeMinutesMap.get(type).get(employee);
+        return bucketToMinutesMap == null ? 0L : bucketToMinutesMap.getOrDefault(bucket, 0L);
+    }
+}